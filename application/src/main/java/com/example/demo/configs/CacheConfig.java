@@ -0,0 +1,16 @@
+package com.example.demo.configs;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+// Just inside PostServiceMetrics, so cache hits are timed as post operations too.
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE + 1)
+public class CacheConfig {
+
+    public static final String POSTGRES_POSTS_CACHE = "postgres-posts";
+    public static final String MONGODB_POSTS_CACHE = "mongodb-posts";
+    public static final String REDIS_POSTS_CACHE = "redis-posts";
+    public static final String ELASTICSEARCH_POSTS_CACHE = "elasticsearch-posts";
+}
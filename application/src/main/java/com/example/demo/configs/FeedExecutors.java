@@ -0,0 +1,123 @@
+package com.example.demo.configs;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entities.PostStore;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class FeedExecutors {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean VIRTUAL_THREADS_ENABLED;
+
+    @Value("${posts.feed.executor.pool-size:16}")
+    private int POOL_SIZE;
+
+    @Value("${posts.feed.executor.queue-capacity:256}")
+    private int QUEUE_CAPACITY;
+
+    @Value("${posts.feed.timeout.postgres:2s}")
+    private Duration POSTGRES_TIMEOUT;
+
+    @Value("${posts.feed.timeout.mongodb:2s}")
+    private Duration MONGODB_TIMEOUT;
+
+    @Value("${posts.feed.timeout.redis:500ms}")
+    private Duration REDIS_TIMEOUT;
+
+    @Value("${posts.feed.timeout.elasticsearch:2s}")
+    private Duration ELASTICSEARCH_TIMEOUT;
+
+    private final Map<PostStore, ExecutorService> executorServices = new EnumMap<>(PostStore.class);
+    private final Map<PostStore, Executor> executors = new EnumMap<>(PostStore.class);
+    private final Map<PostStore, Duration> timeouts = new EnumMap<>(PostStore.class);
+
+    @PostConstruct
+    public void init() {
+        for (PostStore store : PostStore.values()) {
+            if (VIRTUAL_THREADS_ENABLED) {
+                createVirtualThreadExecutor(store);
+            } else {
+                createPlatformThreadExecutor(store);
+            }
+        }
+
+        timeouts.put(PostStore.POSTGRES, POSTGRES_TIMEOUT);
+        timeouts.put(PostStore.MONGODB, MONGODB_TIMEOUT);
+        timeouts.put(PostStore.REDIS, REDIS_TIMEOUT);
+        timeouts.put(PostStore.ELASTICSEARCH, ELASTICSEARCH_TIMEOUT);
+    }
+
+    public Executor executorFor(PostStore store) {
+        return executors.get(store);
+    }
+
+    public Duration timeoutFor(PostStore store) {
+        return timeouts.get(store);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorServices.values().forEach(ExecutorService::shutdown);
+    }
+
+    private void createPlatformThreadExecutor(PostStore store) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("feed-" + store.name().toLowerCase() + "-");
+        threadFactory.setDaemon(true);
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            POOL_SIZE, POOL_SIZE,
+            60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            threadFactory,
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        executorServices.put(store, executor);
+        executors.put(store, executor);
+    }
+
+    private void createVirtualThreadExecutor(PostStore store) {
+        ThreadFactory threadFactory = Thread.ofVirtual().name("feed-" + store.name().toLowerCase() + "-", 0).factory();
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(threadFactory);
+        Semaphore permits = new Semaphore(POOL_SIZE + QUEUE_CAPACITY);
+
+        executorServices.put(store, executor);
+        executors.put(store, task -> {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("Too many concurrent " + store.getDatabase() + " feed queries");
+            }
+
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.configs;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import com.example.demo.security.CachingJwtDecoder;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Configuration
+public class JwtConfig {
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
+    private String ISSUER_URI;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}")
+    private String JWK_SET_URI;
+
+    @Value("${security.jwt.jwks.cache-ttl:15m}")
+    private Duration JWKS_CACHE_TTL;
+
+    @Value("${security.jwt.jwks.refresh-timeout:15s}")
+    private Duration JWKS_REFRESH_TIMEOUT;
+
+    @Value("${security.jwt.jwks.refresh-ahead:1m}")
+    private Duration JWKS_REFRESH_AHEAD;
+
+    @Value("${security.jwt.decoded-cache.max-size:10000}")
+    private long DECODED_CACHE_MAX_SIZE;
+
+    @Bean
+    public JWKSource<SecurityContext> jwkSource() throws MalformedURLException {
+        // Keys are refreshed on a background thread before the cached set expires, so requests
+        // never wait for the JWKS endpoint, and the last good set is kept while it is down.
+        return JWKSourceBuilder.<SecurityContext>create(URI.create(JWK_SET_URI).toURL())
+            .cache(JWKS_CACHE_TTL.toMillis(), JWKS_REFRESH_TIMEOUT.toMillis())
+            .refreshAheadCache(JWKS_REFRESH_AHEAD.toMillis(), true)
+            .retrying(true)
+            .outageTolerant(JWKS_CACHE_TTL.multipliedBy(4).toMillis())
+            .build();
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource, MeterRegistry meterRegistry) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        // Claims are validated by Spring Security below, the same split NimbusJwtDecoder's builders use.
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder nimbusJwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        nimbusJwtDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER_URI));
+
+        return new CachingJwtDecoder(nimbusJwtDecoder, DECODED_CACHE_MAX_SIZE, meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarmJwks() {
+        try {
+            List<JWK> keys = jwkSource().get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+            log.info("Loaded {} signing keys from {}", keys.size(), JWK_SET_URI);
+        } catch (Exception e) {
+            log.warn("Failed to pre-load signing keys from {}, they will be fetched on the first request: {}", JWK_SET_URI, e.getMessage());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.demo.configs;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 import io.minio.MinioClient;
 
@@ -11,14 +12,28 @@ public class MinioConfig {
 
     @Value("${minio.endpoint}")
     private String ENDPOINT; 
+    @Value("${minio.public-endpoint:${minio.endpoint}}")
+    private String PUBLIC_ENDPOINT;
+    @Value("${minio.region:us-east-1}")
+    private String REGION;
     private static final String ACCESS_KEY = "minioaccesskey"; 
     private static final String SECRET_KEY = "miniosecretkey"; 
 
     @Bean
+    @Primary
     public MinioClient minioClient() {
         return MinioClient.builder()
             .endpoint(ENDPOINT)
             .credentials(ACCESS_KEY, SECRET_KEY)
             .build();
     }
+
+    @Bean
+    public MinioClient minioPresignClient() {
+        return MinioClient.builder()
+            .endpoint(PUBLIC_ENDPOINT)
+            .region(REGION)
+            .credentials(ACCESS_KEY, SECRET_KEY)
+            .build();
+    }
 }
@@ -0,0 +1,139 @@
+package com.example.demo.configs;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.PostFeed;
+import com.example.demo.entities.PostStore;
+import com.example.demo.exception.exceptions.AccessDeniedException;
+import com.example.demo.exception.exceptions.BadRequestException;
+import com.example.demo.exception.exceptions.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+// Outermost, so the timing covers the cache, transaction commit and outbox writes the caller waits for.
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PostServiceMetrics {
+
+    public static final String OPERATION_TIMER = "posts.operation";
+
+    private record Operation(Pattern method, String name, String store) {
+    }
+
+    // Matched in order, a null store is taken from a PostStore argument or the method name.
+    private static final List<Operation> OPERATIONS = List.of(
+        new Operation(Pattern.compile("getPostsByUserId"), "feed", "all"),
+        new Operation(Pattern.compile("searchPosts"), "search", "elasticsearch"),
+        new Operation(Pattern.compile("get\\w+PostVersion"), "version", null),
+        new Operation(Pattern.compile("getPostFrom\\w+ById"), "get", null),
+        new Operation(Pattern.compile("get\\w+Posts"), "list", null),
+        new Operation(Pattern.compile("export\\w+Posts"), "export", null),
+        new Operation(Pattern.compile("savePost\\w*"), "create", null),
+        new Operation(Pattern.compile("updatePost\\w*"), "update", null),
+        new Operation(Pattern.compile("deletePost\\w*"), "delete", null)
+    );
+
+    final private MeterRegistry meterRegistry;
+
+    private final Map<Method, Operation> operations = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.example.demo.services.PostService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Operation operation = operations.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(), PostServiceMetrics::operationOf);
+        Tags tags = Tags.of("operation", operation.name(), "store", storeOf(operation, joinPoint.getArgs()));
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            stop(sample, tags, outcomeOf(e));
+            throw e;
+        }
+
+        // The feed completes on the store executors, so it is timed until the merged result is ready.
+        if (result instanceof CompletableFuture<?> future) {
+            return future.whenComplete((value, e) -> stop(sample, tags, e != null ? outcomeOf(e) : outcomeOf(value)));
+        }
+
+        stop(sample, tags, outcomeOf(result));
+        return result;
+    }
+
+    private static String outcomeOf(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof ResourceNotFoundException) {
+            return "not_found";
+        }
+        if (cause instanceof AccessDeniedException) {
+            return "denied";
+        }
+        if (cause instanceof BadRequestException) {
+            return "invalid";
+        }
+        return "error";
+    }
+
+    private static String outcomeOf(Object result) {
+        return result instanceof PostFeed feed && feed.isPartial() ? "partial" : "success";
+    }
+
+    private void stop(Timer.Sample sample, Tags tags, String outcome) {
+        sample.stop(Timer.builder(OPERATION_TIMER)
+            .description("Latency of PostService operations by store, operation and outcome")
+            .tags(tags)
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+    }
+
+    private static Operation operationOf(Method method) {
+        String name = method.getName();
+        Operation operation = OPERATIONS.stream()
+            .filter(candidate -> candidate.method().matcher(name).matches())
+            .findFirst()
+            .orElse(new Operation(null, name, null));
+
+        if (operation.store() != null) {
+            return operation;
+        }
+
+        String store = Arrays.stream(PostStore.values())
+            .filter(candidate -> name.contains(candidate.getDatabase()))
+            .findFirst()
+            .map(candidate -> candidate.name().toLowerCase())
+            .orElse(null);
+        return new Operation(operation.method(), operation.name(), store);
+    }
+
+    private static String storeOf(Operation operation, Object[] args) {
+        if (operation.store() != null) {
+            return operation.store();
+        }
+
+        return Arrays.stream(args)
+            .filter(PostStore.class::isInstance)
+            .map(arg -> ((PostStore) arg).name().toLowerCase())
+            .findFirst()
+            .orElse("all");
+    }
+}
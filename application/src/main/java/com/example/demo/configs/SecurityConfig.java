@@ -1,13 +1,11 @@
 package com.example.demo.configs;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -22,22 +20,26 @@ import org.springframework.security.oauth2.client.registration.ClientRegistratio
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
 import org.springframework.web.cors.CorsConfiguration;
 
-import com.example.demo.security.CustomJwtAuthentication;
-import com.example.demo.security.CustomUserPrincipal;
+import com.example.demo.security.CachingJwtAuthenticationConverter;
 import com.example.demo.security.OidcUserAdapter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import lombok.RequiredArgsConstructor;
 
 @Configuration
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    @Value("${security.jwt.principal-cache.max-size:10000}")
+    private long PRINCIPAL_CACHE_MAX_SIZE;
+
     private final ClientRegistrationRepository clientRegistrationRepository;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -68,6 +70,8 @@ public class SecurityConfig {
                     .requestMatchers("/profile").authenticated()
                     .requestMatchers("/user").authenticated()
                     .requestMatchers("/api/posts/**").authenticated()
+                    .requestMatchers("/api/images/**").permitAll()
+                    .requestMatchers("/api/admin/**").hasRole("ADMIN")
                     .requestMatchers("/user").hasRole("USER")
                     .requestMatchers("/admin").hasRole("ADMIN")
                     .requestMatchers("/root").hasRole("ROOT")
@@ -78,19 +82,7 @@ public class SecurityConfig {
 
     @Bean
     public Converter<Jwt, AbstractAuthenticationToken> customJwtAuthenticationConverter() {
-        return jwt -> {
-            Collection<GrantedAuthority> authorities = extractAuthorities(jwt);
-            String userId = jwt.getClaimAsString("sub"); 
-            String username = jwt.getClaimAsString("preferred_username");
-            String email = jwt.getClaimAsString("email");
-            String fullName = jwt.getClaimAsString("name"); 
-
-            CustomUserPrincipal principal = new CustomUserPrincipal(
-                userId, username, email, fullName, authorities
-            );
-
-            return new CustomJwtAuthentication(principal, jwt, authorities);
-        };
+        return new CachingJwtAuthenticationConverter(PRINCIPAL_CACHE_MAX_SIZE, meterRegistry);
     }
 
     @Bean
@@ -120,17 +112,4 @@ public class SecurityConfig {
         return oidcLogoutSuccessHandler;
     }
 
-    private Collection<GrantedAuthority> extractAuthorities(Jwt jwt) {
-        var jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
-        var authorities = jwtGrantedAuthoritiesConverter.convert(jwt);
-        var roles = jwt.getClaimAsStringList("spring_sec_roles");
-
-        return Stream.concat(
-            authorities.stream(),
-            roles.stream()
-                .filter(role -> role.startsWith("ROLE_"))
-                .map(SimpleGrantedAuthority::new)
-                .map(GrantedAuthority.class::cast)
-        ).collect(Collectors.toList());
-    }
-} 
+}
@@ -0,0 +1,103 @@
+package com.example.demo.configs;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordingStream;
+
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadMetrics implements MeterBinder {
+
+    private static final String CARRIER_THREAD_CLASS = "jdk.internal.misc.CarrierThread";
+
+    @Value("${virtual-threads.metrics.pinned-threshold:20ms}")
+    private Duration PINNED_THRESHOLD;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final int parallelism = Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+    private final ReentrantLock sampleLock = new ReentrantLock();
+
+    private RecordingStream recordingStream;
+    private long lastSampleNanos = System.nanoTime();
+    private long lastCarrierCpuNanos;
+    private double carrierUtilization;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Counter pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads that blocked while pinned to their carrier thread")
+            .register(registry);
+        Timer pinnedTimer = Timer.builder("jvm.threads.virtual.pinned.duration")
+            .description("Time virtual threads spent blocked while pinned to their carrier thread")
+            .register(registry);
+        Counter submitFailedCounter = Counter.builder("jvm.threads.virtual.submit.failed")
+            .description("Virtual threads that could not be started or unparked")
+            .register(registry);
+
+        Gauge.builder("jvm.threads.virtual.carrier.utilization", this, VirtualThreadMetrics::sampleCarrierUtilization)
+            .description("Share of carrier thread capacity spent on CPU since the previous sample")
+            .register(registry);
+        Gauge.builder("jvm.threads.virtual.carrier.parallelism", () -> parallelism)
+            .description("Target number of carrier threads of the virtual thread scheduler")
+            .register(registry);
+
+        recordingStream = new RecordingStream();
+        recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(PINNED_THRESHOLD);
+        recordingStream.enable("jdk.VirtualThreadSubmitFailed");
+        recordingStream.onEvent("jdk.VirtualThreadPinned", event -> {
+            pinnedCounter.increment();
+            pinnedTimer.record(event.getDuration());
+        });
+        recordingStream.onEvent("jdk.VirtualThreadSubmitFailed", event -> submitFailedCounter.increment());
+        recordingStream.startAsync();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private double sampleCarrierUtilization() {
+        sampleLock.lock();
+        try {
+            long now = System.nanoTime();
+            long carrierCpuNanos = carrierThreads().stream()
+                .mapToLong(thread -> Math.max(threadMXBean.getThreadCpuTime(thread.threadId()), 0))
+                .sum();
+
+            long elapsedNanos = now - lastSampleNanos;
+            if (elapsedNanos > 0 && lastCarrierCpuNanos > 0) {
+                long cpuDelta = Math.max(carrierCpuNanos - lastCarrierCpuNanos, 0);
+                carrierUtilization = Math.min((double) cpuDelta / (elapsedNanos * (double) parallelism), 1.0);
+            }
+
+            lastSampleNanos = now;
+            lastCarrierCpuNanos = carrierCpuNanos;
+            return carrierUtilization;
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    private List<Thread> carrierThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> thread.getClass().getName().equals(CARRIER_THREAD_CLASS))
+            .toList();
+    }
+}
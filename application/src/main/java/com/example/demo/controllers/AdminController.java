@@ -0,0 +1,117 @@
+package com.example.demo.controllers;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.dto.ReconciliationReport;
+import com.example.demo.entities.PostStore;
+import com.example.demo.exception.exceptions.BadRequestException;
+import com.example.demo.services.ImageDerivativeService;
+import com.example.demo.services.OrphanImageReconciler;
+import com.example.demo.services.PostReadModelProjector;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    final private ObjectProvider<PostReadModelProjector> postReadModelProjector;
+    final private ObjectProvider<ImageDerivativeService> imageDerivativeService;
+    final private ObjectProvider<OrphanImageReconciler> orphanImageReconciler;
+
+    @Operation(
+        summary = "Перестроить единый индекс чтения",
+        description = "Этот метод запускает фоновую перестройку индекса posts-read из всех четырёх хранилищ. Документы, которые не были переписаны во время перестройки, удаляются по её завершении.",
+        responses = {
+            @ApiResponse(responseCode = "202", description = "Перестройка запущена"),
+            @ApiResponse(responseCode = "400", description = "Индекс чтения отключён"),
+            @ApiResponse(responseCode = "409", description = "Перестройка уже выполняется")
+        }
+    )
+    @PostMapping("/read-model/rebuild")
+    public ResponseEntity<Void> rebuildReadModel() {
+        PostReadModelProjector projector = postReadModelProjector.getIfAvailable();
+        if (projector == null) {
+            throw new BadRequestException("Read model is disabled");
+        }
+
+        return projector.rebuild()
+                ? ResponseEntity.status(HttpStatus.ACCEPTED).build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @Operation(
+        summary = "Пересоздать превью изображений",
+        description = "Этот метод ставит в фоновую очередь с низким приоритетом все посты с изображениями, у которых нет миниатюры или веб-версии. Если указан store, обрабатывается только это хранилище, при force=true варианты пересоздаются для всех постов с изображениями.",
+        responses = {
+            @ApiResponse(responseCode = "202", description = "Обработка запущена"),
+            @ApiResponse(responseCode = "400", description = "Создание превью отключено"),
+            @ApiResponse(responseCode = "409", description = "Обработка уже выполняется")
+        }
+    )
+    @PostMapping("/images/reprocess")
+    public ResponseEntity<Void> reprocessImages(@RequestParam(required = false) PostStore store,
+                                                @RequestParam(defaultValue = "false") boolean force) {
+        ImageDerivativeService derivatives = imageDerivativeService.getIfAvailable();
+        if (derivatives == null) {
+            throw new BadRequestException("Image derivatives are disabled");
+        }
+
+        Set<PostStore> stores = store == null ? EnumSet.allOf(PostStore.class) : EnumSet.of(store);
+        return derivatives.reprocess(stores, force)
+                ? ResponseEntity.status(HttpStatus.ACCEPTED).build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @Operation(
+        summary = "Удалить неиспользуемые изображения",
+        description = "Этот метод запускает фоновую сверку бакета MinIO со всеми четырьмя хранилищами. Объекты, на которые не ссылается ни один пост и которые старше льготного периода, удаляются пакетами.",
+        responses = {
+            @ApiResponse(responseCode = "202", description = "Сверка запущена"),
+            @ApiResponse(responseCode = "400", description = "Сверка отключена"),
+            @ApiResponse(responseCode = "409", description = "Сверка уже выполняется")
+        }
+    )
+    @PostMapping("/images/reconcile")
+    public ResponseEntity<Void> reconcileImages() {
+        return orphanImageReconciler().reconcile()
+                ? ResponseEntity.status(HttpStatus.ACCEPTED).build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @Operation(
+        summary = "Получить отчёт о сверке изображений",
+        description = "Этот метод возвращает отчёт о последней сверке, запущенной на этом экземпляре приложения: сколько объектов просмотрено, сколько удалено и сколько места освобождено.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Отчёт найден"),
+            @ApiResponse(responseCode = "400", description = "Сверка отключена"),
+            @ApiResponse(responseCode = "404", description = "Сверка ещё не запускалась")
+        }
+    )
+    @GetMapping("/images/reconciliation")
+    public ResponseEntity<ReconciliationReport> getReconciliationReport() {
+        ReconciliationReport report = orphanImageReconciler().getLastReport();
+        return report == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(report);
+    }
+
+    private OrphanImageReconciler orphanImageReconciler() {
+        OrphanImageReconciler reconciler = orphanImageReconciler.getIfAvailable();
+        if (reconciler == null) {
+            throw new BadRequestException("Image reconciliation is disabled");
+        }
+        return reconciler;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.controllers;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.services.ImageDiskCache;
+import com.example.demo.utils.ETags;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/images")
+public class ImageController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+
+    final private ImageDiskCache imageDiskCache;
+
+    @Operation(
+        summary = "Получить изображение",
+        description = "Этот метод отдаёт изображение из MinIO через локальный дисковый кэш. Поддерживаются запросы диапазонов (Range) и If-None-Match; ответ кэшируется клиентом на год, так как содержимое по имени не меняется.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Изображение"),
+            @ApiResponse(responseCode = "206", description = "Запрошенный диапазон изображения"),
+            @ApiResponse(responseCode = "304", description = "Изображение не изменилось"),
+            @ApiResponse(responseCode = "404", description = "Изображение не найдено"),
+            @ApiResponse(responseCode = "416", description = "Диапазон вне изображения")
+        }
+    )
+    @GetMapping("/{objectName}")
+    public void getImage(
+        @PathVariable String objectName,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+        @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        ImageDiskCache.CachedImage image = imageDiskCache.get(objectName);
+        long size = image.size();
+
+        response.setHeader(HttpHeaders.ETAG, image.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (ETags.matches(ifNoneMatch, image.etag())) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+
+        Matcher matcher = range == null ? null : SINGLE_RANGE.matcher(range.trim());
+        // An invalid range such as bytes=5-3 is ignored and the whole image is sent (RFC 9110, 14.2).
+        if (matcher != null && matcher.matches() && isValidRange(matcher.group(1), matcher.group(2))
+                && (ifRange == null || ifRange.equals(image.etag()))) {
+            String first = matcher.group(1);
+            String last = matcher.group(2);
+
+            if (first.isEmpty()) {
+                long suffixLength = parsePosition(last);
+                start = suffixLength == 0 ? size : Math.max(0, size - suffixLength);
+            } else {
+                start = parsePosition(first);
+                end = last.isEmpty() ? size - 1 : Math.min(parsePosition(last), size - 1);
+            }
+
+            if (start >= size) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+
+        long length = end - start + 1;
+        response.setContentType(image.contentType());
+        response.setContentLengthLong(length);
+
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        // Tomcat writes the file straight from the page cache to the socket once the handler returns.
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, image.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(image.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += file.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+
+    private static boolean isValidRange(String first, String last) {
+        if (first.isEmpty()) {
+            return !last.isEmpty();
+        }
+        return last.isEmpty() || parsePosition(last) >= parsePosition(first);
+    }
+
+    // A position too large for a long is past the end of any image.
+    private static long parsePosition(String digits) {
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
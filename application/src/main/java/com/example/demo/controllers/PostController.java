@@ -1,29 +1,55 @@
 package com.example.demo.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.example.demo.entities.Post;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.DeletionProgress;
+import com.example.demo.dto.PostFeed;
+import com.example.demo.dto.PostSearchHit;
+import com.example.demo.dto.PresignedUpload;
+import com.example.demo.dto.PresignedUploadRequest;
 import com.example.demo.entities.PostElasticsearch;
 import com.example.demo.entities.PostMongodb;
 import com.example.demo.entities.PostPostgres;
 import com.example.demo.entities.PostRedis;
+import com.example.demo.entities.PostStore;
+import com.example.demo.services.PostBulkService;
 import com.example.demo.services.PostService;
+import com.example.demo.services.PresignedUploadService;
+import com.example.demo.services.UserPostsDeletionService;
+import com.example.demo.utils.ETags;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -33,17 +59,27 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/api/posts")
 public class PostController {
 
+    private static final int NDJSON_FLUSH_INTERVAL = 100;
+
     final private PostService postService;
+    final private PostBulkService postBulkService;
+    final private UserPostsDeletionService userPostsDeletionService;
+    final private PresignedUploadService presignedUploadService;
+    final private ObjectMapper objectMapper;
 
     @Operation(
         summary = "Получить все посты пользователя",
-        description = "Этот метод возвращает список всех постов, созданных пользователем с заданным ID.",
+        description = "Этот метод возвращает список всех постов, созданных пользователем с заданным ID. Если какая-либо база данных не ответила вовремя, возвращаются частичные результаты, а её название указывается в missingDatabases. Ответ содержит ETag; при совпадении If-None-Match возвращается 304 без тела.",
         responses = {
             @ApiResponse(
                 responseCode = "200",
                 description = "Список постов успешно возвращён",
                 content = @Content(mediaType = "application/json")
             ),
+            @ApiResponse(
+                responseCode = "304",
+                description = "Данные не изменились с момента получения ETag"
+            ),
             @ApiResponse(
                 responseCode = "404",
                 description = "Пользователь не найден",
@@ -57,14 +93,60 @@ public class PostController {
         }
     )
     @GetMapping("/user/{userId}")
-    public List<Post> getPostsByUserId(
+    public CompletableFuture<ResponseEntity<PostFeed>> getPostsByUserId(
         @Parameter(
             description = "Идентификатор пользователя, чьи посты нужно получить",
             required = true
         ) 
-        @PathVariable String userId
+        @PathVariable String userId,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        return postService.getPostsByUserId(userId).thenApply(feed -> {
+            String etag = ETags.forFeed(feed);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<PostFeed>build();
+            }
+
+            return ResponseEntity.ok().eTag(etag).body(feed);
+        });
+    }
+
+
+
+
+    @Operation(
+        summary = "Полнотекстовый поиск постов",
+        description = "Этот метод ищет посты в Elasticsearch по тексту, упорядочивает их по релевантности и подсвечивает совпадения. Результаты можно ограничить постами одного пользователя. Для получения следующей страницы передайте nextCursor из ответа в параметре cursor.",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Успешно возвращена страница найденных постов",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Пустой запрос, неверный курсор или лимит",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                description = "Ошибка на сервере при поиске постов",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @GetMapping("/search")
+    public CursorPage<PostSearchHit> searchPosts(
+        @Parameter(description = "Поисковый запрос", required = true) 
+        @RequestParam String q,
+        @Parameter(description = "Идентификатор пользователя, посты которого нужно искать") 
+        @RequestParam(required = false) String userId,
+        @Parameter(description = "Максимальное количество постов на странице") 
+        @RequestParam(defaultValue = "20") int limit,
+        @Parameter(description = "Курсор следующей страницы из предыдущего ответа") 
+        @RequestParam(required = false) String cursor
     ) {
-        return postService.getPostsByUserId(userId);
+        return postService.searchPosts(q, userId, limit, cursor);
     }
 
 
@@ -72,11 +154,16 @@ public class PostController {
 
     @Operation(
         summary = "Получить посты из PostgreSQL",
-        description = "Этот метод возвращает все посты, хранящиеся в базе данных PostgreSQL.",
+        description = "Этот метод возвращает страницу постов, хранящихся в базе данных PostgreSQL. Для получения следующей страницы передайте nextCursor из ответа в параметре cursor.",
         responses = {
             @ApiResponse(
                 responseCode = "200",
-                description = "Успешно возвращен список постов из PostgreSQL",
+                description = "Успешно возвращена страница постов из PostgreSQL",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Неверный курсор или лимит",
                 content = @Content(mediaType = "application/json")
             ),
             @ApiResponse(
@@ -87,17 +174,27 @@ public class PostController {
         }
     )
     @GetMapping("/postgres")
-    public List<PostPostgres> getPostgresPosts() {
-        return postService.getPostgresPosts();
+    public CursorPage<PostPostgres> getPostgresPosts(
+        @Parameter(description = "Максимальное количество постов на странице") 
+        @RequestParam(defaultValue = "50") int limit,
+        @Parameter(description = "Курсор следующей страницы из предыдущего ответа") 
+        @RequestParam(required = false) String cursor
+    ) {
+        return postService.getPostgresPosts(limit, cursor);
     }
 
     @Operation(
         summary = "Получить посты из MongoDB",
-        description = "Этот метод возвращает все посты, хранящиеся в базе данных MongoDB.",
+        description = "Этот метод возвращает страницу постов, хранящихся в базе данных MongoDB. Для получения следующей страницы передайте nextCursor из ответа в параметре cursor.",
         responses = {
             @ApiResponse(
                 responseCode = "200",
-                description = "Успешно возвращен список постов из MongoDB",
+                description = "Успешно возвращена страница постов из MongoDB",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Неверный курсор или лимит",
                 content = @Content(mediaType = "application/json")
             ),
             @ApiResponse(
@@ -108,17 +205,27 @@ public class PostController {
         }
     )
     @GetMapping("/mongodb")
-    public List<PostMongodb> getMongodbPosts() {
-        return postService.getMongodbPosts();
+    public CursorPage<PostMongodb> getMongodbPosts(
+        @Parameter(description = "Максимальное количество постов на странице") 
+        @RequestParam(defaultValue = "50") int limit,
+        @Parameter(description = "Курсор следующей страницы из предыдущего ответа") 
+        @RequestParam(required = false) String cursor
+    ) {
+        return postService.getMongodbPosts(limit, cursor);
     }
 
     @Operation(
         summary = "Получить посты из Redis",
-        description = "Этот метод возвращает все посты, хранящиеся в базе данных Redis.",
+        description = "Этот метод возвращает страницу постов, хранящихся в базе данных Redis. Для получения следующей страницы передайте nextCursor из ответа в параметре cursor.",
         responses = {
             @ApiResponse(
                 responseCode = "200",
-                description = "Успешно возвращен список постов из Redis",
+                description = "Успешно возвращена страница постов из Redis",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Неверный курсор или лимит",
                 content = @Content(mediaType = "application/json")
             ),
             @ApiResponse(
@@ -129,17 +236,27 @@ public class PostController {
         }
     )
     @GetMapping("/redis")
-    public List<PostRedis> getRedisPosts() {
-        return postService.getRedisPosts();
+    public CursorPage<PostRedis> getRedisPosts(
+        @Parameter(description = "Максимальное количество постов на странице") 
+        @RequestParam(defaultValue = "50") int limit,
+        @Parameter(description = "Курсор следующей страницы из предыдущего ответа") 
+        @RequestParam(required = false) String cursor
+    ) {
+        return postService.getRedisPosts(limit, cursor);
     }
 
     @Operation(
         summary = "Получить посты из Elasticsearch",
-        description = "Этот метод возвращает все посты, хранящиеся в базе данных Elasticsearch.",
+        description = "Этот метод возвращает страницу постов, хранящихся в базе данных Elasticsearch. Для получения следующей страницы передайте nextCursor из ответа в параметре cursor.",
         responses = {
             @ApiResponse(
                 responseCode = "200",
-                description = "Успешно возвращен список постов из Elasticsearch",
+                description = "Успешно возвращена страница постов из Elasticsearch",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Неверный курсор или лимит",
                 content = @Content(mediaType = "application/json")
             ),
             @ApiResponse(
@@ -150,22 +267,118 @@ public class PostController {
         }
     )
     @GetMapping("/elasticsearch")
-    public List<PostElasticsearch> getElasticsearchPosts() {
-        return postService.getElasticsearchPosts();
+    public CursorPage<PostElasticsearch> getElasticsearchPosts(
+        @Parameter(description = "Максимальное количество постов на странице") 
+        @RequestParam(defaultValue = "50") int limit,
+        @Parameter(description = "Курсор следующей страницы из предыдущего ответа") 
+        @RequestParam(required = false) String cursor
+    ) {
+        return postService.getElasticsearchPosts(limit, cursor);
     }
 
     
 
 
+    @Operation(
+        summary = "Выгрузить все посты из PostgreSQL в формате NDJSON",
+        description = "Этот метод потоково выгружает все посты, хранящиеся в базе данных PostgreSQL, по одному JSON-объекту на строку. Используется для экспорта и административных задач.",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Посты из PostgreSQL выгружаются потоком",
+                content = @Content(mediaType = "application/x-ndjson")
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                description = "Ошибка на сервере при выгрузке постов из PostgreSQL",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @GetMapping(value = "/postgres", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportPostgresPosts() {
+        return ndjson(postService::exportPostgresPosts);
+    }
+
+    @Operation(
+        summary = "Выгрузить все посты из MongoDB в формате NDJSON",
+        description = "Этот метод потоково выгружает все посты, хранящиеся в базе данных MongoDB, по одному JSON-объекту на строку. Используется для экспорта и административных задач.",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Посты из MongoDB выгружаются потоком",
+                content = @Content(mediaType = "application/x-ndjson")
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                description = "Ошибка на сервере при выгрузке постов из MongoDB",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @GetMapping(value = "/mongodb", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportMongodbPosts() {
+        return ndjson(postService::exportMongodbPosts);
+    }
+
+    @Operation(
+        summary = "Выгрузить все посты из Redis в формате NDJSON",
+        description = "Этот метод потоково выгружает все посты, хранящиеся в базе данных Redis, по одному JSON-объекту на строку. Используется для экспорта и административных задач.",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Посты из Redis выгружаются потоком",
+                content = @Content(mediaType = "application/x-ndjson")
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                description = "Ошибка на сервере при выгрузке постов из Redis",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @GetMapping(value = "/redis", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportRedisPosts() {
+        return ndjson(postService::exportRedisPosts);
+    }
+
+    @Operation(
+        summary = "Выгрузить все посты из Elasticsearch в формате NDJSON",
+        description = "Этот метод потоково выгружает все посты, хранящиеся в базе данных Elasticsearch, по одному JSON-объекту на строку. Используется для экспорта и административных задач.",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Посты из Elasticsearch выгружаются потоком",
+                content = @Content(mediaType = "application/x-ndjson")
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                description = "Ошибка на сервере при выгрузке постов из Elasticsearch",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @GetMapping(value = "/elasticsearch", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportElasticsearchPosts() {
+        return ndjson(postService::exportElasticsearchPosts);
+    }
+
+
+
+
     @Operation(
         summary = "Получить пост из PostgreSQL по ID",
-        description = "Этот метод возвращает пост, найденный в базе данных PostgreSQL, по заданному ID.",
+        description = "Этот метод возвращает пост, найденный в базе данных PostgreSQL, по заданному ID. Ответ содержит ETag; при совпадении If-None-Match возвращается 304 без тела.",
         responses = {
             @ApiResponse(
                 responseCode = "200",
                 description = "Пост успешно найден и возвращён",
                 content = @Content(mediaType = "application/json")
             ),
+            @ApiResponse(
+                responseCode = "304",
+                description = "Данные не изменились с момента получения ETag"
+            ),
             @ApiResponse(
                 responseCode = "404",
                 description = "Пост с таким ID не найден",
@@ -179,21 +392,34 @@ public class PostController {
         }
     )
     @GetMapping("/postgres/{id}")
-    public PostPostgres getPostFromPostgresById(
-        @Parameter(description = "Идентификатор поста в PostgreSQL") @PathVariable String id
+    public ResponseEntity<PostPostgres> getPostFromPostgresById(
+        @Parameter(description = "Идентификатор поста в PostgreSQL") @PathVariable String id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return postService.getPostFromPostgresById(id);
+        if (ifNoneMatch != null) {
+            String etag = ETags.forPost(PostStore.POSTGRES, id, postService.getPostgresPostVersion(id));
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        PostPostgres post = postService.getPostFromPostgresById(id);
+        return ResponseEntity.ok().eTag(ETags.forPost(post)).body(post);
     }
 
     @Operation(
         summary = "Получить пост из MongoDB по ID",
-        description = "Этот метод возвращает пост, найденный в базе данных MongoDB, по заданному ID.",
+        description = "Этот метод возвращает пост, найденный в базе данных MongoDB, по заданному ID. Ответ содержит ETag; при совпадении If-None-Match возвращается 304 без тела.",
         responses = {
             @ApiResponse(
                 responseCode = "200",
                 description = "Пост успешно найден и возвращён",
                 content = @Content(mediaType = "application/json")
             ),
+            @ApiResponse(
+                responseCode = "304",
+                description = "Данные не изменились с момента получения ETag"
+            ),
             @ApiResponse(
                 responseCode = "404",
                 description = "Пост с таким ID не найден",
@@ -207,21 +433,34 @@ public class PostController {
         }
     )
     @GetMapping("/mongodb/{id}")
-    public PostMongodb getPostFromMongodbById(
-        @Parameter(description = "Идентификатор поста в MongoDB") @PathVariable String id
+    public ResponseEntity<PostMongodb> getPostFromMongodbById(
+        @Parameter(description = "Идентификатор поста в MongoDB") @PathVariable String id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return postService.getPostFromMongodbById(id);
+        if (ifNoneMatch != null) {
+            String etag = ETags.forPost(PostStore.MONGODB, id, postService.getMongodbPostVersion(id));
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        PostMongodb post = postService.getPostFromMongodbById(id);
+        return ResponseEntity.ok().eTag(ETags.forPost(post)).body(post);
     }
 
     @Operation(
         summary = "Получить пост из Redis по ID",
-        description = "Этот метод возвращает пост, найденный в базе данных Redis, по заданному ID.",
+        description = "Этот метод возвращает пост, найденный в базе данных Redis, по заданному ID. Ответ содержит ETag; при совпадении If-None-Match возвращается 304 без тела.",
         responses = {
             @ApiResponse(
                 responseCode = "200",
                 description = "Пост успешно найден и возвращён",
                 content = @Content(mediaType = "application/json")
             ),
+            @ApiResponse(
+                responseCode = "304",
+                description = "Данные не изменились с момента получения ETag"
+            ),
             @ApiResponse(
                 responseCode = "404",
                 description = "Пост с таким ID не найден",
@@ -235,21 +474,34 @@ public class PostController {
         }
     )
     @GetMapping("/redis/{id}")
-    public PostRedis getPostFromRedisById(
-        @Parameter(description = "Идентификатор поста в Redis") @PathVariable String id
+    public ResponseEntity<PostRedis> getPostFromRedisById(
+        @Parameter(description = "Идентификатор поста в Redis") @PathVariable String id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return postService.getPostFromRedisById(id);
+        if (ifNoneMatch != null) {
+            String etag = ETags.forPost(PostStore.REDIS, id, postService.getRedisPostVersion(id));
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        PostRedis post = postService.getPostFromRedisById(id);
+        return ResponseEntity.ok().eTag(ETags.forPost(post)).body(post);
     }
 
     @Operation(
         summary = "Получить пост из Elasticsearch по ID",
-        description = "Этот метод возвращает пост, найденный в базе данных Elasticsearch, по заданному ID.",
+        description = "Этот метод возвращает пост, найденный в базе данных Elasticsearch, по заданному ID. Ответ содержит ETag; при совпадении If-None-Match возвращается 304 без тела.",
         responses = {
             @ApiResponse(
                 responseCode = "200",
                 description = "Пост успешно найден и возвращён",
                 content = @Content(mediaType = "application/json")
             ),
+            @ApiResponse(
+                responseCode = "304",
+                description = "Данные не изменились с момента получения ETag"
+            ),
             @ApiResponse(
                 responseCode = "404",
                 description = "Пост с таким ID не найден",
@@ -263,10 +515,19 @@ public class PostController {
         }
     )
     @GetMapping("/elasticsearch/{id}")
-    public PostElasticsearch getPostFromElasticsearchById(
-        @Parameter(description = "Идентификатор поста в Elasticsearch") @PathVariable String id
+    public ResponseEntity<PostElasticsearch> getPostFromElasticsearchById(
+        @Parameter(description = "Идентификатор поста в Elasticsearch") @PathVariable String id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return postService.getPostFromElasticsearchById(id);
+        if (ifNoneMatch != null) {
+            String etag = ETags.forPost(PostStore.ELASTICSEARCH, id, postService.getElasticsearchPostVersion(id));
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        PostElasticsearch post = postService.getPostFromElasticsearchById(id);
+        return ResponseEntity.ok().eTag(ETags.forPost(post)).body(post);
     }
 
     
@@ -437,6 +698,351 @@ public class PostController {
         postService.savePostToElasticsearch(text, imageFile);
     }
 
+    @Operation(
+        summary = "Сохранить несколько постов в PostgreSQL",
+        description = "Этот метод сохраняет пачку постов в PostgreSQL одной пакетной записью. Тексты и изображения сопоставляются по порядку; изображения загружаются параллельно с ограниченной конкурентностью. Возвращает идентификаторы созданных постов в том же порядке.",
+        parameters = {
+            @Parameter(
+                name = "texts", 
+                description = "Тексты постов", 
+                required = true
+            ),
+            @Parameter(
+                name = "imageFiles", 
+                description = "Изображения для постов, по одному на каждый текст", 
+                content = @Content(mediaType = "multipart/form-data")
+            )
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Посты успешно сохранены в PostgreSQL"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Неверные данные в запросе",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                description = "Ошибка на сервере при сохранении постов",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @PostMapping(value = "/postgres/bulk", consumes = "multipart/form-data")
+    public List<String> savePostsToPostgres(
+        @RequestParam List<String> texts, 
+        @RequestParam List<MultipartFile> imageFiles
+    ) {
+        return postBulkService.savePostsToPostgres(texts, imageFiles);
+    }
+
+    @Operation(
+        summary = "Сохранить несколько постов в MongoDB",
+        description = "Этот метод сохраняет пачку постов в MongoDB одной пакетной записью. Тексты и изображения сопоставляются по порядку; изображения загружаются параллельно с ограниченной конкурентностью. Возвращает идентификаторы созданных постов в том же порядке.",
+        parameters = {
+            @Parameter(
+                name = "texts", 
+                description = "Тексты постов", 
+                required = true
+            ),
+            @Parameter(
+                name = "imageFiles", 
+                description = "Изображения для постов, по одному на каждый текст", 
+                content = @Content(mediaType = "multipart/form-data")
+            )
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Посты успешно сохранены в MongoDB"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Неверные данные в запросе",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                description = "Ошибка на сервере при сохранении постов",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @PostMapping(value = "/mongodb/bulk", consumes = "multipart/form-data")
+    public List<String> savePostsToMongodb(
+        @RequestParam List<String> texts, 
+        @RequestParam List<MultipartFile> imageFiles
+    ) {
+        return postBulkService.savePostsToMongodb(texts, imageFiles);
+    }
+
+    @Operation(
+        summary = "Сохранить несколько постов в Redis",
+        description = "Этот метод сохраняет пачку постов в Redis одной пакетной записью. Тексты и изображения сопоставляются по порядку; изображения загружаются параллельно с ограниченной конкурентностью. Возвращает идентификаторы созданных постов в том же порядке.",
+        parameters = {
+            @Parameter(
+                name = "texts", 
+                description = "Тексты постов", 
+                required = true
+            ),
+            @Parameter(
+                name = "imageFiles", 
+                description = "Изображения для постов, по одному на каждый текст", 
+                content = @Content(mediaType = "multipart/form-data")
+            )
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Посты успешно сохранены в Redis"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Неверные данные в запросе",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                description = "Ошибка на сервере при сохранении постов",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @PostMapping(value = "/redis/bulk", consumes = "multipart/form-data")
+    public List<String> savePostsToRedis(
+        @RequestParam List<String> texts, 
+        @RequestParam List<MultipartFile> imageFiles
+    ) {
+        return postBulkService.savePostsToRedis(texts, imageFiles);
+    }
+
+    @Operation(
+        summary = "Сохранить несколько постов в Elasticsearch",
+        description = "Этот метод сохраняет пачку постов в Elasticsearch одной пакетной записью. Тексты и изображения сопоставляются по порядку; изображения загружаются параллельно с ограниченной конкурентностью. Возвращает идентификаторы созданных постов в том же порядке.",
+        parameters = {
+            @Parameter(
+                name = "texts", 
+                description = "Тексты постов", 
+                required = true
+            ),
+            @Parameter(
+                name = "imageFiles", 
+                description = "Изображения для постов, по одному на каждый текст", 
+                content = @Content(mediaType = "multipart/form-data")
+            )
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Посты успешно сохранены в Elasticsearch"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Неверные данные в запросе",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                description = "Ошибка на сервере при сохранении постов",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @PostMapping(value = "/elasticsearch/bulk", consumes = "multipart/form-data")
+    public List<String> savePostsToElasticsearch(
+        @RequestParam List<String> texts, 
+        @RequestParam List<MultipartFile> imageFiles
+    ) {
+        return postBulkService.savePostsToElasticsearch(texts, imageFiles);
+    }
+
+    @Operation(
+        summary = "Получить ссылку для прямой загрузки изображения в MinIO",
+        description = "Этот метод резервирует загрузку и возвращает подписанную ссылку PUT, по которой клиент загружает изображение напрямую в MinIO, минуя приложение. Загрузку нужно подтвердить до истечения срока действия; необработанные загрузки удаляются автоматически.",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Ссылка для загрузки создана",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Неподдерживаемый тип или слишком большой размер изображения",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @PostMapping(value = "/uploads", consumes = "application/json")
+    public PresignedUpload createUpload(@RequestBody @Valid PresignedUploadRequest request) {
+        return presignedUploadService.createUpload(request.getContentType(), request.getSize());
+    }
+
+    @Operation(
+        summary = "Подтвердить загрузку и сохранить пост в PostgreSQL",
+        description = "Этот метод проверяет загруженное напрямую в MinIO изображение (наличие, размер, тип содержимого и сигнатуру файла) и только после этого сохраняет пост в PostgreSQL. Возвращает идентификатор созданного поста.",
+        parameters = {
+            @Parameter(
+                name = "uploadId", 
+                description = "Идентификатор загрузки", 
+                required = true
+            ),
+            @Parameter(
+                name = "text", 
+                description = "Текст поста", 
+                required = true, 
+                example = "Это пример текста поста."
+            )
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Пост успешно сохранён в PostgreSQL"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Изображение не загружено или не прошло проверку",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "404",
+                description = "Загрузка не найдена или истекла",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @PostMapping("/postgres/uploads/{uploadId}")
+    public String confirmUploadToPostgres(
+        @PathVariable String uploadId,
+        @RequestParam @NotBlank(message = "Text must not be empty") String text
+    ) {
+        return presignedUploadService.confirmUpload(PostStore.POSTGRES, uploadId, text);
+    }
+
+    @Operation(
+        summary = "Подтвердить загрузку и сохранить пост в MongoDB",
+        description = "Этот метод проверяет загруженное напрямую в MinIO изображение (наличие, размер, тип содержимого и сигнатуру файла) и только после этого сохраняет пост в MongoDB. Возвращает идентификатор созданного поста.",
+        parameters = {
+            @Parameter(
+                name = "uploadId", 
+                description = "Идентификатор загрузки", 
+                required = true
+            ),
+            @Parameter(
+                name = "text", 
+                description = "Текст поста", 
+                required = true, 
+                example = "Это пример текста поста."
+            )
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Пост успешно сохранён в MongoDB"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Изображение не загружено или не прошло проверку",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "404",
+                description = "Загрузка не найдена или истекла",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @PostMapping("/mongodb/uploads/{uploadId}")
+    public String confirmUploadToMongodb(
+        @PathVariable String uploadId,
+        @RequestParam @NotBlank(message = "Text must not be empty") String text
+    ) {
+        return presignedUploadService.confirmUpload(PostStore.MONGODB, uploadId, text);
+    }
+
+    @Operation(
+        summary = "Подтвердить загрузку и сохранить пост в Redis",
+        description = "Этот метод проверяет загруженное напрямую в MinIO изображение (наличие, размер, тип содержимого и сигнатуру файла) и только после этого сохраняет пост в Redis. Возвращает идентификатор созданного поста.",
+        parameters = {
+            @Parameter(
+                name = "uploadId", 
+                description = "Идентификатор загрузки", 
+                required = true
+            ),
+            @Parameter(
+                name = "text", 
+                description = "Текст поста", 
+                required = true, 
+                example = "Это пример текста поста."
+            )
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Пост успешно сохранён в Redis"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Изображение не загружено или не прошло проверку",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "404",
+                description = "Загрузка не найдена или истекла",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @PostMapping("/redis/uploads/{uploadId}")
+    public String confirmUploadToRedis(
+        @PathVariable String uploadId,
+        @RequestParam @NotBlank(message = "Text must not be empty") String text
+    ) {
+        return presignedUploadService.confirmUpload(PostStore.REDIS, uploadId, text);
+    }
+
+    @Operation(
+        summary = "Подтвердить загрузку и сохранить пост в Elasticsearch",
+        description = "Этот метод проверяет загруженное напрямую в MinIO изображение (наличие, размер, тип содержимого и сигнатуру файла) и только после этого сохраняет пост в Elasticsearch. Возвращает идентификатор созданного поста.",
+        parameters = {
+            @Parameter(
+                name = "uploadId", 
+                description = "Идентификатор загрузки", 
+                required = true
+            ),
+            @Parameter(
+                name = "text", 
+                description = "Текст поста", 
+                required = true, 
+                example = "Это пример текста поста."
+            )
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Пост успешно сохранён в Elasticsearch"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Изображение не загружено или не прошло проверку",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "404",
+                description = "Загрузка не найдена или истекла",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @PostMapping("/elasticsearch/uploads/{uploadId}")
+    public String confirmUploadToElasticsearch(
+        @PathVariable String uploadId,
+        @RequestParam @NotBlank(message = "Text must not be empty") String text
+    ) {
+        return presignedUploadService.confirmUpload(PostStore.ELASTICSEARCH, uploadId, text);
+    }
+
 
     
 
@@ -823,4 +1429,92 @@ public class PostController {
         postService.deletePostFromElasticsearchById(postId);
         return ResponseEntity.ok("Post with ID " + postId + " deleted from Elasticsearch.");
     }
+
+    @Operation(
+        summary = "Удалить все посты пользователя",
+        description = "Этот метод запускает фоновое удаление всех постов пользователя из всех баз данных и их изображений из MinIO. Возвращает задание, ход выполнения которого можно получить по его идентификатору. Удалять посты может сам пользователь или администратор.",
+        parameters = {
+            @Parameter(
+                name = "userId", 
+                description = "Идентификатор пользователя", 
+                required = true
+            )
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "202",
+                description = "Удаление запущено",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "403",
+                description = "Нет прав для удаления постов пользователя (Access Denied)",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @DeleteMapping("/user/{userId}")
+    public ResponseEntity<DeletionProgress> deleteAllPostsOfUser(@PathVariable String userId) {
+        DeletionProgress progress = userPostsDeletionService.deleteAllPostsOfUser(userId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/posts/deletions/" + progress.getJobId()))
+                .body(progress);
+    }
+
+    @Operation(
+        summary = "Получить ход удаления постов пользователя",
+        description = "Этот метод возвращает состояние задания на удаление всех постов пользователя: число удалённых постов по базам данных, число удалённых и неудалённых изображений и статус задания.",
+        parameters = {
+            @Parameter(
+                name = "jobId", 
+                description = "Идентификатор задания", 
+                required = true
+            )
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Состояние задания",
+                content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                responseCode = "404",
+                description = "Задание не найдено или устарело",
+                content = @Content(mediaType = "application/json")
+            )
+        }
+    )
+    @GetMapping("/deletions/{jobId}")
+    public DeletionProgress getDeletionProgress(@PathVariable String jobId) {
+        return userPostsDeletionService.getProgress(jobId);
+    }
+
+
+
+
+    private <T> ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<T>> source) {
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        StreamingResponseBody body = outputStream -> {
+            AtomicLong written = new AtomicLong();
+
+            source.accept(post -> {
+                try {
+                    writer.writeValue(outputStream, post);
+                    outputStream.write('\n');
+
+                    if (written.getAndIncrement() % NDJSON_FLUSH_INTERVAL == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.demo.dto;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+public class DeletionProgress {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String jobId;
+    private final String userId;
+    private final Instant startedAt = Instant.now();
+    private final Map<String, Long> deletedPosts = new ConcurrentHashMap<>();
+    private volatile Status status = Status.PENDING;
+    private volatile String currentDatabase;
+    private volatile long imageReferencesReleased;
+    private volatile long imageReferencesFailed;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public DeletionProgress(String jobId, String userId) {
+        this.jobId = jobId;
+        this.userId = userId;
+    }
+}
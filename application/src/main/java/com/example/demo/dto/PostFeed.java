@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+import com.example.demo.entities.Post;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(value = "partial", allowGetters = true)
+public class PostFeed {
+
+    private List<Post> posts;
+    private List<String> missingDatabases;
+
+    public boolean isPartial() {
+        return !missingDatabases.isEmpty();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+import com.example.demo.entities.Post;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class PostSearchHit {
+
+    private Post post;
+    private float score;
+    private List<String> highlights;
+}
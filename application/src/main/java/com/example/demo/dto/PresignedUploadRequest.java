@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class PresignedUploadRequest {
+
+    @NotBlank(message = "Content type must be provided")
+    private String contentType;
+
+    @Positive(message = "Size must be positive")
+    private long size;
+}
@@ -0,0 +1,38 @@
+package com.example.demo.dto;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+public class ReconciliationReport {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final Instant startedAt = Instant.now();
+    private final boolean dryRun;
+    private volatile Status status = Status.RUNNING;
+    private volatile long referencedImages;
+    private volatile long bloomFilterBytes;
+    private volatile long scannedObjects;
+    private volatile long skippedRecent;
+    private volatile long skippedPending;
+    private volatile long orphans;
+    private volatile long deletedObjects;
+    private volatile long reclaimedBytes;
+    private volatile long failedDeletes;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public ReconciliationReport(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+}
@@ -6,4 +6,7 @@ public interface Post {
     String getUserId();
     String getText();
     String getImageUrl();
+    String getThumbnailUrl();
+    String getWebUrl();
+    long getVersion();
 }
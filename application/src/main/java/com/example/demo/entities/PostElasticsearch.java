@@ -2,6 +2,10 @@ package com.example.demo.entities;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,13 +21,20 @@ import lombok.ToString;
 @AllArgsConstructor
 @NoArgsConstructor
 @Document(indexName = "posts")
+@Setting(settingPath = "/elasticsearch/posts-settings.json")
+@Mapping(mappingPath = "/elasticsearch/posts-mapping.json")
 public class PostElasticsearch implements Post {
 
     final private String database = "Elasticsearch";
 
     @Id
     private String id;
+    @Field(type = FieldType.Keyword)
     private String userId;
     private String text;
     private String imageUrl;
+    private String thumbnailUrl;
+    private String webUrl;
+    @Field(type = FieldType.Long)
+    private long version;
 }
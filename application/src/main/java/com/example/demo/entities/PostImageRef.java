@@ -0,0 +1,6 @@
+package com.example.demo.entities;
+
+public interface PostImageRef {
+    String getId();
+    String getImageUrl();
+}
@@ -1,6 +1,7 @@
 package com.example.demo.entities;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -23,7 +24,11 @@ public class PostMongodb implements Post {
 
     @Id
     private String id;
+    @Indexed
     private String userId;
     private String text;
     private String imageUrl;
+    private String thumbnailUrl;
+    private String webUrl;
+    private long version;
 }
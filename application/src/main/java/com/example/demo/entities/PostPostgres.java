@@ -1,9 +1,15 @@
 package com.example.demo.entities;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -18,6 +24,7 @@ import lombok.ToString;
 @ToString
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = @Index(name = "idx_post_postgres_user_id", columnList = "user_id"))
 public class PostPostgres implements Post {
 
     final private String database = "Postgres";
@@ -28,4 +35,11 @@ public class PostPostgres implements Post {
     private String userId;
     private String text;
     private String imageUrl;
+    private String thumbnailUrl;
+    private String webUrl;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 }
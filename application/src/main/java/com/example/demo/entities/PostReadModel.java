@@ -0,0 +1,60 @@
+package com.example.demo.entities;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(indexName = "posts-read")
+@Setting(settingPath = "/elasticsearch/posts-settings.json")
+@Mapping(mappingPath = "/elasticsearch/posts-read-mapping.json")
+public class PostReadModel implements Post {
+
+    @Id
+    @JsonIgnore
+    private String documentId;
+    private String database;
+    private String id;
+    private String userId;
+    private String text;
+    private String imageUrl;
+    private String thumbnailUrl;
+    private String webUrl;
+    private long version;
+    @JsonIgnore
+    private long projectedAt;
+
+    public static String documentId(PostStore store, String postId) {
+        return store.name().toLowerCase() + ":" + postId;
+    }
+
+    public static PostReadModel of(PostStore store, Post post) {
+        return PostReadModel.builder()
+            .documentId(documentId(store, post.getId()))
+            .database(store.getDatabase())
+            .id(post.getId())
+            .userId(post.getUserId())
+            .text(post.getText())
+            .imageUrl(post.getImageUrl())
+            .thumbnailUrl(post.getThumbnailUrl())
+            .webUrl(post.getWebUrl())
+            .version(post.getVersion())
+            .projectedAt(System.currentTimeMillis())
+            .build();
+    }
+}
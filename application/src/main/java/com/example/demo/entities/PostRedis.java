@@ -25,4 +25,7 @@ public class PostRedis implements Post, Serializable  {
     private String userId;
     private String text;
     private String imageUrl;
+    private String thumbnailUrl;
+    private String webUrl;
+    private long version;
 }
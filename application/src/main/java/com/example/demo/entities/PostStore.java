@@ -0,0 +1,18 @@
+package com.example.demo.entities;
+
+public enum PostStore {
+    POSTGRES("Postgres"),
+    MONGODB("Mongodb"),
+    REDIS("Redis"),
+    ELASTICSEARCH("Elasticsearch");
+
+    private final String database;
+
+    PostStore(String database) {
+        this.database = database;
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+}
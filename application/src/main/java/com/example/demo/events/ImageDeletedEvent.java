@@ -0,0 +1,16 @@
+package com.example.demo.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageDeletedEvent {
+
+    private String bucket;
+    private String objectName;
+}
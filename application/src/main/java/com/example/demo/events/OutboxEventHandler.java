@@ -0,0 +1,10 @@
+package com.example.demo.events;
+
+import com.example.demo.entities.OutboxEvent;
+
+public interface OutboxEventHandler {
+
+    String getType();
+
+    void handle(OutboxEvent event) throws Exception;
+}
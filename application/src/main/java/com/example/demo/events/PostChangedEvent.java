@@ -0,0 +1,33 @@
+package com.example.demo.events;
+
+import java.time.Instant;
+
+import com.example.demo.entities.PostStore;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private PostStore store;
+    private String postId;
+    private String userId;
+    private Type type;
+    private Instant occurredAt;
+
+    public PostChangedEvent(PostStore store, String postId, String userId, Type type) {
+        this(store, postId, userId, type, Instant.now());
+    }
+}
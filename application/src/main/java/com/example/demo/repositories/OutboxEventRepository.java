@@ -0,0 +1,36 @@
+package com.example.demo.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entities.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, String> {
+
+    @Query(value = """
+            select * from outbox_event
+            where available_at <= :now and attempts < :maxAttempts
+            order by created_at
+            limit :batchSize
+            for update skip locked
+            """, nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(Instant now, int maxAttempts, int batchSize);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.availableAt = :leaseUntil, e.attempts = e.attempts + 1 where e.id in :ids")
+    void lease(Collection<String> ids, Instant leaseUntil);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.lastError = :error, e.availableAt = :retryAt where e.id = :id")
+    void recordFailure(String id, String error, Instant retryAt);
+
+    @Query("select count(e) from OutboxEvent e where e.attempts >= :maxAttempts")
+    long countExhausted(int maxAttempts);
+}
@@ -0,0 +1,26 @@
+package com.example.demo.repositories;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.elasticsearch.core.SearchHits;
+
+import com.example.demo.entities.PostElasticsearch;
+
+public interface PostElasticsearchCustomRepository {
+
+    Optional<Long> findVersionById(String id);
+
+    long updateContent(String id, long version, String text, String imageUrl);
+
+    long updateImageVariants(String id, String imageUrl, String thumbnailUrl, String webUrl);
+
+    List<PostElasticsearch> findPageAfter(String searchAfterId, int limit);
+
+    Stream<PostElasticsearch> streamAll();
+
+    List<PostElasticsearch> findImageRefsByUserId(String userId);
+
+    SearchHits<PostElasticsearch> search(String text, String userId, List<Object> searchAfter, int limit);
+}
@@ -0,0 +1,135 @@
+package com.example.demo.repositories;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.data.elasticsearch.core.query.UpdateResponse;
+
+import com.example.demo.entities.PostElasticsearch;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class PostElasticsearchCustomRepositoryImpl implements PostElasticsearchCustomRepository {
+
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final String UPDATE_CONTENT_SCRIPT = """
+            if (((Number) ctx._source.version).longValue() == ((Number) params.version).longValue()) {
+                ctx._source.text = params.text;
+                ctx._source.imageUrl = params.imageUrl;
+                ctx._source.thumbnailUrl = null;
+                ctx._source.webUrl = null;
+                ctx._source.version += 1;
+            } else {
+                ctx.op = 'noop';
+            }
+            """;
+    private static final String UPDATE_IMAGE_VARIANTS_SCRIPT = """
+            if (ctx._source.imageUrl == params.imageUrl) {
+                ctx._source.thumbnailUrl = params.thumbnailUrl;
+                ctx._source.webUrl = params.webUrl;
+                ctx._source.version += 1;
+            } else {
+                ctx.op = 'noop';
+            }
+            """;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    @Override
+    public Optional<Long> findVersionById(String id) {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(q -> q.ids(i -> i.values(id)))
+                .withSourceFilter(new FetchSourceFilterBuilder().withIncludes("version").build())
+                .withMaxResults(1)
+                .build();
+
+        SearchHit<PostElasticsearch> hit = elasticsearchOperations.searchOne(query, PostElasticsearch.class);
+        return Optional.ofNullable(hit).map(found -> found.getContent().getVersion());
+    }
+
+    // Compare-and-set on the version, so concurrent updates never end up with the same version and ETag.
+    @Override
+    public long updateContent(String id, long version, String text, String imageUrl) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("version", version);
+        params.put("text", text);
+        params.put("imageUrl", imageUrl);
+
+        return update(id, UPDATE_CONTENT_SCRIPT, params);
+    }
+
+    // Painless runs against the current source, so a concurrent edit of the text or its version bump is kept.
+    @Override
+    public long updateImageVariants(String id, String imageUrl, String thumbnailUrl, String webUrl) {
+        return update(id, UPDATE_IMAGE_VARIANTS_SCRIPT, Map.of("imageUrl", imageUrl, "thumbnailUrl", thumbnailUrl, "webUrl", webUrl));
+    }
+
+    @Override
+    public List<PostElasticsearch> findPageAfter(String searchAfterId, int limit) {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(q -> q.matchAll(m -> m))
+                .withPageable(PageRequest.of(0, limit, Sort.by(Sort.Direction.ASC, "id")))
+                .withSearchAfter(searchAfterId == null ? null : List.<Object>of(searchAfterId))
+                .build();
+
+        return elasticsearchOperations.search(query, PostElasticsearch.class).stream()
+                .map(SearchHit::getContent)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<PostElasticsearch> streamAll() {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(q -> q.matchAll(m -> m))
+                .withPageable(PageRequest.of(0, STREAM_BATCH_SIZE))
+                .build();
+
+        return elasticsearchOperations.searchForStream(query, PostElasticsearch.class).stream()
+                .map(SearchHit::getContent);
+    }
+
+    @Override
+    public List<PostElasticsearch> findImageRefsByUserId(String userId) {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(q -> q.term(t -> t.field("userId").value(userId)))
+                .withSourceFilter(new FetchSourceFilterBuilder().withIncludes("id", "imageUrl").build())
+                .withPageable(PageRequest.of(0, STREAM_BATCH_SIZE))
+                .build();
+
+        try (Stream<SearchHit<PostElasticsearch>> hits = elasticsearchOperations.searchForStream(query, PostElasticsearch.class).stream()) {
+            return hits.map(SearchHit::getContent).collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public SearchHits<PostElasticsearch> search(String text, String userId, List<Object> searchAfter, int limit) {
+        return elasticsearchOperations.search(
+            PostSearchQueries.fullText(text, userId, searchAfter, limit, PostElasticsearch.class),
+            PostElasticsearch.class);
+    }
+
+    private long update(String id, String script, Map<String, Object> params) {
+        UpdateQuery query = UpdateQuery.builder(id)
+                .withScript(script)
+                .withLang("painless")
+                .withParams(params)
+                .withRetryOnConflict(3)
+                .build();
+
+        UpdateResponse response = elasticsearchOperations.update(query, elasticsearchOperations.getIndexCoordinatesFor(PostElasticsearch.class));
+        return response.getResult() == UpdateResponse.Result.UPDATED ? 1 : 0;
+    }
+}
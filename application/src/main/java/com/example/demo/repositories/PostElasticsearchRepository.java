@@ -1,11 +1,16 @@
 package com.example.demo.repositories;
 
+import java.util.List;
+
+import org.springframework.data.elasticsearch.annotations.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.entities.PostElasticsearch;
 
 @Repository
-public interface PostElasticsearchRepository extends ElasticsearchRepository<PostElasticsearch, String> {
+public interface PostElasticsearchRepository extends ElasticsearchRepository<PostElasticsearch, String>, PostElasticsearchCustomRepository {
 
+    @Query("{\"bool\": {\"filter\": [{\"term\": {\"userId\": \"?0\"}}]}}")
+    List<PostElasticsearch> findByUserId(String userId);
 }
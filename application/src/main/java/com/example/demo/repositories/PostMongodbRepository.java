@@ -1,6 +1,14 @@
 package com.example.demo.repositories;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.entities.PostMongodb;
@@ -8,4 +16,25 @@ import com.example.demo.entities.PostMongodb;
 @Repository
 public interface PostMongodbRepository extends MongoRepository<PostMongodb, String> {
 
+    List<PostMongodb> findByUserId(String userId);
+
+    List<PostMongodb> deleteAllByUserId(String userId);
+
+    @Query("{ '_id': ?0, 'imageUrl': ?1 }")
+    @Update("{ '$set': { 'thumbnailUrl': ?2, 'webUrl': ?3 }, '$inc': { 'version': 1 } }")
+    long updateImageVariants(String id, String imageUrl, String thumbnailUrl, String webUrl);
+
+    @Query("{ '_id': ?0, 'version': ?1 }")
+    @Update("{ '$set': { 'text': ?2, 'imageUrl': ?3, 'thumbnailUrl': null, 'webUrl': null }, '$inc': { 'version': 1 } }")
+    long updateContent(String id, long version, String text, String imageUrl);
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1 }")
+    Optional<PostMongodb> findVersionById(String id);
+
+    List<PostMongodb> findAllByOrderByIdAsc(Limit limit);
+
+    List<PostMongodb> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    @Meta(cursorBatchSize = 500)
+    Stream<PostMongodb> streamAllBy();
 }
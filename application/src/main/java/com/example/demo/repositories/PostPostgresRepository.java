@@ -1,11 +1,50 @@
 package com.example.demo.repositories;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.entities.PostImageRef;
 import com.example.demo.entities.PostPostgres;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PostPostgresRepository extends JpaRepository<PostPostgres, String> {
 
+    List<PostPostgres> findByUserId(String userId);
+
+    @Query(value = """
+            delete from post_postgres
+            where user_id = :userId
+            returning id, image_url as "imageUrl"
+            """, nativeQuery = true)
+    List<PostImageRef> deleteAllByUserId(String userId);
+
+    @Modifying
+    @Query("update PostPostgres p set p.thumbnailUrl = :thumbnailUrl, p.webUrl = :webUrl, p.version = p.version + 1 where p.id = :id and p.imageUrl = :imageUrl")
+    int updateImageVariants(String id, String imageUrl, String thumbnailUrl, String webUrl);
+
+    @Query("select p.version from PostPostgres p where p.id = :id")
+    Optional<Long> findVersionById(String id);
+
+    List<PostPostgres> findAllByOrderByIdAsc(Limit limit);
+
+    List<PostPostgres> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from PostPostgres p")
+    Stream<PostPostgres> streamAll();
 }
@@ -0,0 +1,16 @@
+package com.example.demo.repositories;
+
+import java.util.List;
+
+import org.springframework.data.elasticsearch.core.SearchHits;
+
+import com.example.demo.entities.PostReadModel;
+
+public interface PostReadModelCustomRepository {
+
+    SearchHits<PostReadModel> search(String text, String userId, List<Object> searchAfter, int limit);
+
+    void deleteProjectedBefore(long projectedAt);
+
+    void deleteAllByUserId(String userId);
+}
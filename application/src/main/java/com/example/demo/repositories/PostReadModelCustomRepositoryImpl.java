@@ -0,0 +1,43 @@
+package com.example.demo.repositories;
+
+import java.util.List;
+
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.DeleteQuery;
+
+import com.example.demo.entities.PostReadModel;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class PostReadModelCustomRepositoryImpl implements PostReadModelCustomRepository {
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    @Override
+    public SearchHits<PostReadModel> search(String text, String userId, List<Object> searchAfter, int limit) {
+        return elasticsearchOperations.search(
+            PostSearchQueries.fullText(text, userId, searchAfter, limit, PostReadModel.class),
+            PostReadModel.class);
+    }
+
+    @Override
+    public void deleteProjectedBefore(long projectedAt) {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(q -> q.range(r -> r.number(n -> n.field("projectedAt").lt((double) projectedAt))))
+                .build();
+
+        elasticsearchOperations.delete(DeleteQuery.builder(query).build(), PostReadModel.class);
+    }
+
+    @Override
+    public void deleteAllByUserId(String userId) {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(q -> q.term(t -> t.field("userId").value(userId)))
+                .build();
+
+        elasticsearchOperations.delete(DeleteQuery.builder(query).build(), PostReadModel.class);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.repositories;
+
+import java.util.List;
+
+import org.springframework.data.elasticsearch.annotations.Query;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entities.PostReadModel;
+
+@Repository
+public interface PostReadModelRepository extends ElasticsearchRepository<PostReadModel, String>, PostReadModelCustomRepository {
+
+    @Query("{\"bool\": {\"filter\": [{\"term\": {\"userId\": \"?0\"}}]}}")
+    List<PostReadModel> findByUserId(String userId);
+}
@@ -1,12 +1,25 @@
 package com.example.demo.repositories;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import org.springframework.data.redis.connection.RedisZSetCommands.ZAddArgs;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.entities.PostRedis;
 
 import lombok.RequiredArgsConstructor;
@@ -16,31 +29,148 @@ import lombok.RequiredArgsConstructor;
 public class PostRedisRepository {
 
     private final RedisTemplate<String, PostRedis> redisTemplate;
-    private static final String POSTS_KEY = "posts";
+    private final StringRedisTemplate stringRedisTemplate;
+    private static final String POST_KEY_PATTERN = "post:{*}";
+    private static final String SCAN_START = "0";
+    private static final int STREAM_BATCH_SIZE = 500;
 
+    // One SCAN step, returned as {next cursor, keys}. Driver-neutral, unlike the native cursor APIs.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCAN_SCRIPT = RedisScript.of(
+        "return redis.call('SCAN', ARGV[1], 'MATCH', ARGV[2], 'COUNT', ARGV[3])", List.class);
+
+    // Compare-and-set on the stored version, so a writer holding an older copy cannot overwrite a newer one.
+    private static final RedisScript<Long> REPLACE_IF_VERSION_SCRIPT = RedisScript.of("""
+        local current = redis.call('GET', KEYS[1])
+        if not current or cjson.decode(current).version ~= tonumber(ARGV[1]) then
+            return 0
+        end
+        redis.call('SET', KEYS[1], ARGV[2])
+        return 1
+        """, Long.class);
+
+    // Every key is written on its own so nothing spans cluster slots. The index entry goes first and the
+    // post is deleted first, so a partial write only ever leaves an index entry without its post, which reads skip.
     public void save(PostRedis postRedis) {
-        redisTemplate.opsForHash().put(POSTS_KEY, postRedis.getId(), postRedis);
+        stringRedisTemplate.opsForZSet().addIfAbsent(userPostsKey(postRedis.getUserId()), postRedis.getId(), System.currentTimeMillis());
+        redisTemplate.opsForValue().set(postKey(postRedis.getId()), postRedis);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void saveAll(List<PostRedis> posts) {
+        RedisSerializer<PostRedis> valueSerializer = (RedisSerializer<PostRedis>) redisTemplate.getValueSerializer();
+        long now = System.currentTimeMillis();
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (PostRedis postRedis : posts) {
+                connection.zSetCommands().zAdd(
+                    userPostsKey(postRedis.getUserId()).getBytes(StandardCharsets.UTF_8),
+                    now,
+                    postRedis.getId().getBytes(StandardCharsets.UTF_8),
+                    ZAddArgs.ifNotExists());
+                connection.stringCommands().set(
+                    postKey(postRedis.getId()).getBytes(StandardCharsets.UTF_8),
+                    valueSerializer.serialize(postRedis));
+            }
+            return null;
+        });
     }
 
     public Optional<PostRedis> findById(String id) {
-        PostRedis postRedis = (PostRedis) redisTemplate.opsForHash().get(POSTS_KEY, id);
+        PostRedis postRedis = redisTemplate.opsForValue().get(postKey(id));
         return Optional.ofNullable(postRedis);
     }
 
-    public List<PostRedis> findAll() {
-        List<Object> allPosts = redisTemplate.opsForHash().values(POSTS_KEY);
-        return allPosts.stream()
-                        .map(post -> (PostRedis) post)  
-                        .collect(Collectors.toList());
+    public List<PostRedis> findByUserId(String userId) {
+        Set<String> ids = stringRedisTemplate.opsForZSet().reverseRange(userPostsKey(userId), 0, -1);
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return findAllByKeys(ids.stream().map(this::postKey).collect(Collectors.toList()));
+    }
+
+    // SCAN COUNT is only a hint and a batch cannot be resumed halfway, so whole batches are collected until
+    // the page holds at least `limit` posts. The SCAN cursor itself is the page cursor.
+    @SuppressWarnings("unchecked")
+    public CursorPage<PostRedis> findPage(String cursor, int limit) {
+        String scanCursor = cursor == null ? SCAN_START : cursor;
+        List<String> keys = new ArrayList<>();
+
+        do {
+            List<Object> batch = stringRedisTemplate.execute(SCAN_SCRIPT, List.of(), scanCursor, POST_KEY_PATTERN, String.valueOf(limit));
+            scanCursor = (String) batch.get(0);
+            keys.addAll((List<String>) batch.get(1));
+        } while (keys.size() < limit && !SCAN_START.equals(scanCursor));
+
+        return new CursorPage<>(findAllByKeys(keys), SCAN_START.equals(scanCursor) ? null : scanCursor);
     }
 
-    public void update(PostRedis postRedis) {
-        if (redisTemplate.opsForHash().hasKey(POSTS_KEY, postRedis.getId())) {
-            redisTemplate.opsForHash().put(POSTS_KEY, postRedis.getId(), postRedis);
-        } 
+    public void forEach(Consumer<PostRedis> consumer) {
+        ScanOptions scanOptions = ScanOptions.scanOptions().match(POST_KEY_PATTERN).count(STREAM_BATCH_SIZE).build();
+
+        try (Cursor<String> keys = redisTemplate.scan(scanOptions)) {
+            List<String> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+
+            while (keys.hasNext()) {
+                batch.add(keys.next());
+
+                if (batch.size() == STREAM_BATCH_SIZE) {
+                    findAllByKeys(batch).forEach(consumer);
+                    batch.clear();
+                }
+            }
+
+            findAllByKeys(batch).forEach(consumer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean replaceIfVersion(PostRedis postRedis, long expectedVersion) {
+        RedisSerializer<PostRedis> valueSerializer = (RedisSerializer<PostRedis>) redisTemplate.getValueSerializer();
+        String value = new String(valueSerializer.serialize(postRedis), StandardCharsets.UTF_8);
+
+        Long replaced = stringRedisTemplate.execute(REPLACE_IF_VERSION_SCRIPT, List.of(postKey(postRedis.getId())), String.valueOf(expectedVersion), value);
+        return replaced != null && replaced == 1;
     }
 
     public void deleteById(String id) {
-        redisTemplate.opsForHash().delete(POSTS_KEY, id);
+        Optional<PostRedis> postRedis = findById(id);
+
+        redisTemplate.delete(postKey(id));
+        postRedis.ifPresent(post -> stringRedisTemplate.opsForZSet().remove(userPostsKey(post.getUserId()), id));
+    }
+
+    public List<PostRedis> deleteAllByUserId(String userId) {
+        List<PostRedis> posts = findByUserId(userId);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (PostRedis postRedis : posts) {
+                connection.keyCommands().unlink(postKey(postRedis.getId()).getBytes(StandardCharsets.UTF_8));
+            }
+            connection.keyCommands().unlink(userPostsKey(userId).getBytes(StandardCharsets.UTF_8));
+            return null;
+        });
+
+        return posts;
+    }
+
+    private List<PostRedis> findAllByKeys(List<String> keys) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<PostRedis> posts = redisTemplate.opsForValue().multiGet(keys);
+        return posts.stream()
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList());
+    }
+
+    private String postKey(String postId) {
+        return "post:{" + postId + "}";
+    }
+
+    private String userPostsKey(String userId) {
+        return "user:{" + userId + "}:posts";
     }
 }
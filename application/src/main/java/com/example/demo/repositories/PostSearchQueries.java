@@ -0,0 +1,43 @@
+package com.example.demo.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.query.HighlightQuery;
+import org.springframework.data.elasticsearch.core.query.highlight.Highlight;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightField;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+
+final class PostSearchQueries {
+
+    private static final List<String> SEARCH_FIELDS = List.of("text", "text.russian", "text.english");
+
+    private PostSearchQueries() {
+    }
+
+    static NativeQuery fullText(String text, String userId, List<Object> searchAfter, int limit, Class<?> documentClass) {
+        return NativeQuery.builder()
+                .withQuery(q -> q.bool(b -> {
+                    b.must(m -> m.multiMatch(mm -> mm
+                        .query(text)
+                        .fields(SEARCH_FIELDS)
+                        .type(TextQueryType.MostFields)));
+
+                    if (userId != null) {
+                        b.filter(f -> f.term(t -> t.field("userId").value(userId)));
+                    }
+
+                    return b;
+                }))
+                .withPageable(PageRequest.of(0, limit, Sort.by(Sort.Order.desc("_score"), Sort.Order.asc("id"))))
+                .withSearchAfter(searchAfter)
+                .withTrackScores(true)
+                .withHighlightQuery(new HighlightQuery(
+                    new Highlight(List.of(new HighlightField("text"))),
+                    documentClass))
+                .build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.security;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+public class CachingJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private record CachedPrincipal(CustomUserPrincipal principal, Instant expiresAt) {
+    }
+
+    private final JwtGrantedAuthoritiesConverter jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+    private final Cache<String, CachedPrincipal> principals;
+
+    public CachingJwtAuthenticationConverter(long maxSize, MeterRegistry meterRegistry) {
+        this.principals = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new TokenExpiry<CachedPrincipal>(CachedPrincipal::expiresAt))
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "jwt-principals");
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        // The token is created per request, Spring Security sets request details on it.
+        CustomUserPrincipal principal = principals.get(cacheKey(jwt), key -> new CachedPrincipal(toPrincipal(jwt), jwt.getExpiresAt())).principal();
+        return new CustomJwtAuthentication(principal, jwt, principal.getAuthorities());
+    }
+
+    private CustomUserPrincipal toPrincipal(Jwt jwt) {
+        Collection<GrantedAuthority> authorities = extractAuthorities(jwt);
+        String userId = jwt.getClaimAsString("sub");
+        String username = jwt.getClaimAsString("preferred_username");
+        String email = jwt.getClaimAsString("email");
+        String fullName = jwt.getClaimAsString("name");
+
+        return new CustomUserPrincipal(userId, username, email, fullName, authorities);
+    }
+
+    private Collection<GrantedAuthority> extractAuthorities(Jwt jwt) {
+        var authorities = jwtGrantedAuthoritiesConverter.convert(jwt);
+        var roles = Optional.ofNullable(jwt.getClaimAsStringList("spring_sec_roles")).orElse(List.of());
+
+        return Stream.concat(
+            authorities.stream(),
+            roles.stream()
+                .filter(role -> role.startsWith("ROLE_"))
+                .map(SimpleGrantedAuthority::new)
+                .map(GrantedAuthority.class::cast)
+        ).collect(Collectors.toUnmodifiableList());
+    }
+
+    private String cacheKey(Jwt jwt) {
+        return jwt.getId() != null ? jwt.getIssuer() + "|" + jwt.getId() : jwt.getTokenValue();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+class TokenExpiry<V> implements Expiry<String, V> {
+
+    private final Function<V, Instant> expiresAt;
+
+    TokenExpiry(Function<V, Instant> expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public long expireAfterCreate(String key, V value, long currentTime) {
+        Instant expiry = expiresAt.apply(value);
+        if (expiry == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(Instant.now(), expiry).toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.demo.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.dto.PostFeed;
+import com.example.demo.events.PostChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeedCacheService {
+
+    private static final String FEED_CACHE_NAME = "user-feeds";
+    private static final String INVALIDATION_CHANNEL = "posts:feed:invalidations";
+    // Longer than any feed load, so a load never outlives the record of an invalidation it raced with.
+    private static final Duration GENERATION_TTL = Duration.ofMinutes(10);
+
+    // The feed is only cached if no invalidation bumped the generation since the load read it.
+    private static final RedisScript<Long> WRITE_IF_GENERATION_SCRIPT = RedisScript.of("""
+        if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then
+            return 0
+        end
+        redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+        return 1
+        """, Long.class);
+
+    private static final RedisScript<Long> INVALIDATE_SCRIPT = RedisScript.of("""
+        redis.call('INCR', KEYS[2])
+        redis.call('PEXPIRE', KEYS[2], ARGV[1])
+        redis.call('DEL', KEYS[1])
+        return 1
+        """, Long.class);
+
+    @Value("${posts.feed.cache.local.max-size:10000}")
+    private long LOCAL_MAX_SIZE;
+
+    @Value("${posts.feed.cache.local.ttl:5s}")
+    private Duration LOCAL_TTL;
+
+    @Value("${posts.feed.cache.shared.ttl:30s}")
+    private Duration SHARED_TTL;
+
+    final private RedisTemplate<String, PostFeed> feedRedisTemplate;
+    final private StringRedisTemplate stringRedisTemplate;
+    final private RedisMessageListenerContainer redisMessageListenerContainer;
+    final private MeterRegistry meterRegistry;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private Cache<String, PostFeed> localCache;
+    // The generation each user's feed was last invalidated at.
+    private Cache<String, Long> localInvalidations;
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+            .maximumSize(LOCAL_MAX_SIZE)
+            .expireAfterWrite(LOCAL_TTL)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, FEED_CACHE_NAME);
+
+        localInvalidations = Caffeine.newBuilder()
+            .expireAfterWrite(GENERATION_TTL)
+            .build();
+
+        redisMessageListenerContainer.addMessageListener(
+            (message, pattern) -> invalidateLocal(new String(message.getBody())),
+            new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public CompletableFuture<PostFeed> getFeed(String userId, Supplier<CompletableFuture<PostFeed>> loader) {
+        PostFeed localFeed = localCache.getIfPresent(userId);
+        if (localFeed != null) {
+            return CompletableFuture.completedFuture(localFeed);
+        }
+
+        long localGeneration = generation.get();
+
+        PostFeed sharedFeed = readShared(userId);
+        if (sharedFeed != null) {
+            putLocal(userId, sharedFeed, localGeneration);
+            return CompletableFuture.completedFuture(sharedFeed);
+        }
+
+        String sharedGeneration = readSharedGeneration(userId);
+
+        return loader.get().thenApply(feed -> {
+            if (!feed.isPartial()) {
+                putLocal(userId, feed, localGeneration);
+                if (sharedGeneration != null) {
+                    writeShared(userId, feed, sharedGeneration);
+                }
+            }
+
+            return feed;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        invalidate(event.getUserId());
+    }
+
+    public void invalidate(String userId) {
+        invalidateLocal(userId);
+
+        try {
+            stringRedisTemplate.execute(INVALIDATE_SCRIPT, List.of(sharedKey(userId), sharedGenerationKey(userId)),
+                String.valueOf(GENERATION_TTL.toMillis()));
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, userId);
+        } catch (Exception e) {
+            log.error("Failed to invalidate shared feed cache for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private void invalidateLocal(String userId) {
+        localInvalidations.put(userId, generation.incrementAndGet());
+        localCache.invalidate(userId);
+    }
+
+    // Puts first and checks after, so an invalidation racing with the put either removes the entry or is seen here.
+    private void putLocal(String userId, PostFeed feed, long localGeneration) {
+        localCache.put(userId, feed);
+
+        Long invalidatedAt = localInvalidations.getIfPresent(userId);
+        if (invalidatedAt != null && invalidatedAt > localGeneration) {
+            localCache.asMap().remove(userId, feed);
+        }
+    }
+
+    // Null when Redis is unavailable, the load is then not cached in Redis because it cannot be guarded.
+    private String readSharedGeneration(String userId) {
+        try {
+            String sharedGeneration = stringRedisTemplate.opsForValue().get(sharedGenerationKey(userId));
+            return sharedGeneration == null ? "0" : sharedGeneration;
+        } catch (Exception e) {
+            log.warn("Failed to read shared feed generation for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    private PostFeed readShared(String userId) {
+        try {
+            return feedRedisTemplate.opsForValue().get(sharedKey(userId));
+        } catch (Exception e) {
+            log.warn("Failed to read shared feed cache for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeShared(String userId, PostFeed feed, String sharedGeneration) {
+        try {
+            RedisSerializer<PostFeed> valueSerializer = (RedisSerializer<PostFeed>) feedRedisTemplate.getValueSerializer();
+            stringRedisTemplate.execute(WRITE_IF_GENERATION_SCRIPT, List.of(sharedKey(userId), sharedGenerationKey(userId)),
+                sharedGeneration, new String(valueSerializer.serialize(feed), StandardCharsets.UTF_8), String.valueOf(SHARED_TTL.toMillis()));
+        } catch (Exception e) {
+            log.warn("Failed to write shared feed cache for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private String sharedKey(String userId) {
+        return "feed:{" + userId + "}";
+    }
+
+    // Shares the hash tag of the feed key, so the scripts touch a single slot.
+    private String sharedGenerationKey(String userId) {
+        return "feed:{" + userId + "}:generation";
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.services;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entities.OutboxEvent;
+import com.example.demo.events.ImageDeletedEvent;
+import com.example.demo.events.OutboxEventHandler;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class ImageCleanupOutboxHandler implements OutboxEventHandler {
+
+    final private OutboxService outboxService;
+    final private MinioService minioService;
+    final private StagedImageService stagedImageService;
+
+    @Override
+    public String getType() {
+        return OutboxService.IMAGE_DELETED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        ImageDeletedEvent imageDeleted = outboxService.readPayload(event, ImageDeletedEvent.class);
+        // The relay delivers at least once, the event id keeps a redelivery from releasing a second reference.
+        stagedImageService.releaseOnce(event.getId(), minioService.getImageUrl(imageDeleted.getBucket(), imageDeleted.getObjectName()));
+    }
+}
@@ -0,0 +1,467 @@
+package com.example.demo.services;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.configs.CacheConfig;
+import com.example.demo.entities.Post;
+import com.example.demo.entities.PostStore;
+import com.example.demo.events.PostChangedEvent;
+import com.example.demo.repositories.PostElasticsearchRepository;
+import com.example.demo.repositories.PostMongodbRepository;
+import com.example.demo.repositories.PostPostgresRepository;
+import com.example.demo.repositories.PostRedisRepository;
+import com.example.demo.utils.ImageVariants;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "minio.derivatives.enabled", havingValue = "true")
+public class ImageDerivativeService {
+
+    public enum Priority {
+        HIGH,
+        LOW
+    }
+
+    private record Job(PostStore store, String postId, Priority priority, boolean force, long sequence) {
+
+        String key() {
+            return store + ":" + postId + ":" + priority;
+        }
+    }
+
+    private static final int REDIS_UPDATE_ATTEMPTS = 3;
+
+    @Value("${minio.bucket}")
+    private String BUCKET_NAME;
+
+    @Value("${minio.derivatives.workers:2}")
+    private int WORKERS;
+
+    @Value("${minio.derivatives.reprocess-backlog:1000}")
+    private int REPROCESS_BACKLOG;
+
+    @Value("${minio.derivatives.max-backlog:10000}")
+    private int MAX_BACKLOG;
+
+    @Value("${minio.derivatives.thumbnail.size:320}")
+    private int THUMBNAIL_SIZE;
+
+    @Value("${minio.derivatives.thumbnail.quality:0.8}")
+    private float THUMBNAIL_QUALITY;
+
+    @Value("${minio.derivatives.web.size:1280}")
+    private int WEB_SIZE;
+
+    @Value("${minio.derivatives.web.quality:0.85}")
+    private float WEB_QUALITY;
+
+    final private PostPostgresRepository postPostgresRepository;
+    final private PostMongodbRepository postMongodbRepository;
+    final private PostRedisRepository postRedisRepository;
+    final private PostElasticsearchRepository postElasticsearchRepository;
+    final private ObjectProvider<PostService> postService;
+    final private MinioService minioService;
+    final private OutboxService outboxService;
+    final private CacheManager cacheManager;
+    final private ApplicationEventPublisher eventPublisher;
+    final private TransactionTemplate transactionTemplate;
+    final private MeterRegistry meterRegistry;
+
+    private final PriorityBlockingQueue<Job> queue = new PriorityBlockingQueue<>(64,
+        Comparator.comparing(Job::priority).thenComparingLong(Job::sequence));
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean reprocessing = new AtomicBoolean();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private Semaphore reprocessPermits;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void init() {
+        ImageIO.setUseCache(false);
+        reprocessPermits = new Semaphore(REPROCESS_BACKLOG);
+        droppedCounter = Counter.builder("images.derivatives.dropped")
+            .description("Derivative jobs rejected because the backlog was full")
+            .register(meterRegistry);
+        meterRegistry.gauge("images.derivatives.backlog", queue, PriorityBlockingQueue::size);
+
+        for (int i = 0; i < WORKERS; i++) {
+            workers.add(Thread.ofPlatform().name("image-derivatives-" + i).daemon().start(this::work));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            worker.join(10_000);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.getType() != PostChangedEvent.Type.DELETED) {
+            enqueue(event.getStore(), event.getPostId(), Priority.HIGH, false);
+        }
+    }
+
+    public boolean reprocess(Set<PostStore> stores, boolean force) {
+        if (!reprocessing.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Thread.ofPlatform().name("image-derivatives-reprocess").start(() -> {
+            try {
+                for (PostStore store : stores) {
+                    exportFrom(store, post -> {
+                        if (post.getImageUrl() != null && (force || !hasVariants(post))) {
+                            enqueueReprocess(store, post.getId(), force);
+                        }
+                    });
+                    log.info("Queued image derivative reprocessing for posts from {}", store.getDatabase());
+                }
+            } catch (Exception e) {
+                log.error("Image derivative reprocessing failed", e);
+            } finally {
+                reprocessing.set(false);
+            }
+        });
+
+        return true;
+    }
+
+    private boolean enqueue(PostStore store, String postId, Priority priority, boolean force) {
+        if (queue.size() >= MAX_BACKLOG) {
+            droppedCounter.increment();
+            log.warn("Image derivative backlog is full, post {} from {} is left for reprocessing", postId, store.getDatabase());
+            return false;
+        }
+
+        Job job = new Job(store, postId, priority, force, sequence.incrementAndGet());
+        if (!pending.add(job.key())) {
+            return false;
+        }
+
+        queue.add(job);
+        return true;
+    }
+
+    private void enqueueReprocess(PostStore store, String postId, boolean force) {
+        try {
+            reprocessPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing image derivative reprocessing", e);
+        }
+
+        if (!enqueue(store, postId, Priority.LOW, force)) {
+            reprocessPermits.release();
+        }
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Job job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            pending.remove(job.key());
+            if (job.priority() == Priority.LOW) {
+                reprocessPermits.release();
+            }
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome;
+            try {
+                outcome = derive(job);
+            } catch (Exception e) {
+                outcome = "failed";
+                log.error("Failed to derive images for post {} from {}: {}", job.postId(), job.store().getDatabase(), e.getMessage(), e);
+            }
+            sample.stop(Timer.builder("images.derivatives.duration")
+                .description("Time to derive and record the thumbnail and web variants of a post image")
+                .tag("priority", job.priority().name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        }
+    }
+
+    private String derive(Job job) throws Exception {
+        Optional<? extends Post> found = findInStore(job.store(), job.postId());
+        if (found.isEmpty() || found.get().getImageUrl() == null) {
+            return "skipped";
+        }
+
+        Post post = found.get();
+        if (!job.force() && hasVariants(post)) {
+            return "skipped";
+        }
+
+        String objectName = objectName(post.getImageUrl());
+        String webName = ImageVariants.objectName(ImageVariants.WEB, objectName);
+        String thumbnailName = ImageVariants.objectName(ImageVariants.THUMBNAIL, objectName);
+
+        // Originals are content-addressed, so another post with the same image may have derived them already.
+        if (!job.force()
+                && minioService.statObject(BUCKET_NAME, webName).isPresent()
+                && minioService.statObject(BUCKET_NAME, thumbnailName).isPresent()) {
+            return recordVariants(job.store(), post, minioService.getImageUrl(BUCKET_NAME, thumbnailName), minioService.getImageUrl(BUCKET_NAME, webName))
+                ? recorded(job.store(), post, "reused")
+                : "stale";
+        }
+
+        BufferedImage original = readImage(objectName);
+        if (original == null) {
+            log.warn("Image {} of post {} cannot be decoded, no variants were derived", objectName, post.getId());
+            return "unsupported";
+        }
+
+        BufferedImage web = scale(original, WEB_SIZE);
+        BufferedImage thumbnail = scale(web, THUMBNAIL_SIZE);
+
+        String webUrl = upload(ImageVariants.WEB, objectName, encode(web, WEB_QUALITY));
+        String thumbnailUrl = upload(ImageVariants.THUMBNAIL, objectName, encode(thumbnail, THUMBNAIL_QUALITY));
+
+        // Variants of an image the post no longer points at are removed together with that image.
+        return recordVariants(job.store(), post, thumbnailUrl, webUrl)
+            ? recorded(job.store(), post, "derived")
+            : "stale";
+    }
+
+    private String recorded(PostStore store, Post post, String outcome) {
+        Optional.ofNullable(cacheManager.getCache(cacheName(store))).ifPresent(cache -> cache.evict(post.getId()));
+        return outcome;
+    }
+
+    private boolean recordVariants(PostStore store, Post post, String thumbnailUrl, String webUrl) {
+        String postId = post.getId();
+        String imageUrl = post.getImageUrl();
+        PostChangedEvent event = new PostChangedEvent(store, postId, post.getUserId(), PostChangedEvent.Type.UPDATED);
+
+        switch (store) {
+            case POSTGRES -> {
+                return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    if (postPostgresRepository.updateImageVariants(postId, imageUrl, thumbnailUrl, webUrl) == 0) {
+                        return false;
+                    }
+                    outboxService.enqueue(OutboxService.POST_CHANGED, event);
+                    return true;
+                }));
+            }
+            case MONGODB -> {
+                if (postMongodbRepository.updateImageVariants(postId, imageUrl, thumbnailUrl, webUrl) == 0) {
+                    return false;
+                }
+            }
+            case REDIS -> {
+                if (!updateRedisImageVariants(postId, imageUrl, thumbnailUrl, webUrl)) {
+                    return false;
+                }
+            }
+            case ELASTICSEARCH -> {
+                if (postElasticsearchRepository.updateImageVariants(postId, imageUrl, thumbnailUrl, webUrl) == 0) {
+                    return false;
+                }
+            }
+        }
+
+        eventPublisher.publishEvent(event);
+        return true;
+    }
+
+    private boolean updateRedisImageVariants(String postId, String imageUrl, String thumbnailUrl, String webUrl) {
+        for (int attempt = 0; attempt < REDIS_UPDATE_ATTEMPTS; attempt++) {
+            var postRedis = postRedisRepository.findById(postId).filter(current -> imageUrl.equals(current.getImageUrl()));
+            if (postRedis.isEmpty()) {
+                return false;
+            }
+
+            long version = postRedis.get().getVersion();
+            postRedis.get().setThumbnailUrl(thumbnailUrl);
+            postRedis.get().setWebUrl(webUrl);
+            postRedis.get().setVersion(version + 1);
+            if (postRedisRepository.replaceIfVersion(postRedis.get(), version)) {
+                return true;
+            }
+        }
+
+        log.warn("Post {} kept changing in Redis, its image variants were not recorded", postId);
+        return false;
+    }
+
+    private BufferedImage readImage(String objectName) throws Exception {
+        try (InputStream inputStream = minioService.getObject(BUCKET_NAME, objectName);
+             ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+
+                // Decoding every source pixel of a large photo only to throw most of them away is the
+                // expensive part, so subsample while reading down to about twice the web size.
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longestSide / (2 * WEB_SIZE));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source, int maxSize) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = source;
+        do {
+            // Halve at most once per pass, a single bilinear step over a large ratio aliases badly.
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByMIMEType(ImageVariants.CONTENT_TYPE).next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (MemoryCacheImageOutputStream imageOutputStream = new MemoryCacheImageOutputStream(outputStream)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private String upload(String variant, String originalObjectName, byte[] content) {
+        String objectName = ImageVariants.objectName(variant, originalObjectName);
+        String imageUrl = minioService.uploadImageToMinio(BUCKET_NAME, objectName,
+            new ByteArrayInputStream(content), content.length, ImageVariants.CONTENT_TYPE);
+
+        if (imageUrl == null) {
+            throw new IllegalStateException("Failed to upload image variant " + objectName + " to MinIO");
+        }
+
+        meterRegistry.counter("images.derivatives.bytes", "variant", variant).increment(content.length);
+        return imageUrl;
+    }
+
+    private boolean hasVariants(Post post) {
+        String objectName = objectName(post.getImageUrl());
+
+        return minioService.getImageUrl(BUCKET_NAME, ImageVariants.objectName(ImageVariants.THUMBNAIL, objectName)).equals(post.getThumbnailUrl())
+            && minioService.getImageUrl(BUCKET_NAME, ImageVariants.objectName(ImageVariants.WEB, objectName)).equals(post.getWebUrl());
+    }
+
+    private Optional<? extends Post> findInStore(PostStore store, String postId) {
+        return switch (store) {
+            case POSTGRES -> postPostgresRepository.findById(postId);
+            case MONGODB -> postMongodbRepository.findById(postId);
+            case REDIS -> postRedisRepository.findById(postId);
+            case ELASTICSEARCH -> postElasticsearchRepository.findById(postId);
+        };
+    }
+
+    private void exportFrom(PostStore store, Consumer<Post> consumer) {
+        switch (store) {
+            case POSTGRES -> postService.getObject().exportPostgresPosts(consumer::accept);
+            case MONGODB -> postService.getObject().exportMongodbPosts(consumer::accept);
+            case REDIS -> postService.getObject().exportRedisPosts(consumer::accept);
+            case ELASTICSEARCH -> postService.getObject().exportElasticsearchPosts(consumer::accept);
+        }
+    }
+
+    private String cacheName(PostStore store) {
+        return switch (store) {
+            case POSTGRES -> CacheConfig.POSTGRES_POSTS_CACHE;
+            case MONGODB -> CacheConfig.MONGODB_POSTS_CACHE;
+            case REDIS -> CacheConfig.REDIS_POSTS_CACHE;
+            case ELASTICSEARCH -> CacheConfig.ELASTICSEARCH_POSTS_CACHE;
+        };
+    }
+
+    private String objectName(String imageUrl) {
+        return imageUrl.substring(imageUrl.lastIndexOf('/') + 1);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.example.demo.exception.exceptions.BadRequestException;
+import com.example.demo.exception.exceptions.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.StatObjectResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageDiskCache {
+
+    public record CachedImage(Path path, long size, String contentType, String etag) {
+    }
+
+    private static final Pattern OBJECT_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_-]{0,127}");
+
+    @Value("${minio.bucket}")
+    private String BUCKET_NAME;
+
+    @Value("${minio.serving.cache-dir:${java.io.tmpdir}/image-cache}")
+    private Path CACHE_DIR;
+
+    @Value("${minio.serving.cache-size:1GB}")
+    private DataSize CACHE_SIZE;
+
+    @Value("${minio.serving.eviction-delay:30s}")
+    private Duration EVICTION_DELAY;
+
+    final private MinioService minioService;
+    final private MeterRegistry meterRegistry;
+
+    private AsyncCache<String, CachedImage> cache;
+    private Executor deleteExecutor;
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(CACHE_DIR);
+        clear();
+
+        deleteExecutor = CompletableFuture.delayedExecutor(EVICTION_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        cache = Caffeine.newBuilder()
+            .maximumWeight(CACHE_SIZE.toBytes())
+            .weigher((String objectName, CachedImage image) -> (int) Math.min(image.size(), Integer.MAX_VALUE))
+            .removalListener((String objectName, CachedImage image, RemovalCause cause) -> {
+                if (image != null) {
+                    // Responses hand the file to the container by name, give in-flight ones time to finish.
+                    deleteExecutor.execute(() -> delete(image.path()));
+                }
+            })
+            .buildAsync();
+
+        hitCounter = meterRegistry.counter("images.cache.requests", "result", "hit");
+        missCounter = meterRegistry.counter("images.cache.requests", "result", "miss");
+        meterRegistry.gauge("images.cache.size", cache, c -> c.synchronous().policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L))
+            .orElse(0L));
+    }
+
+    public CachedImage get(String objectName) {
+        if (!OBJECT_NAME.matcher(objectName).matches()) {
+            throw new BadRequestException("Invalid image name: " + objectName);
+        }
+
+        CompletableFuture<CachedImage> cached = cache.getIfPresent(objectName);
+        if (cached != null) {
+            hitCounter.increment();
+        } else {
+            missCounter.increment();
+            cached = cache.get(objectName, (name, executor) -> CompletableFuture.supplyAsync(() -> download(name), executor));
+        }
+
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CachedImage download(String objectName) {
+        try {
+            StatObjectResponse stat = minioService.statObject(BUCKET_NAME, objectName)
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found: " + objectName));
+
+            // Every download gets its own file, so a delayed delete of an evicted copy never hits a newer one.
+            Path path = CACHE_DIR.resolve(objectName + "-" + UUID.randomUUID());
+
+            try (InputStream inputStream = minioService.getObject(BUCKET_NAME, objectName)) {
+                Files.copy(inputStream, path);
+            } catch (Exception e) {
+                delete(path);
+                throw e;
+            }
+
+            return new CachedImage(path, Files.size(path), stat.contentType(), "\"" + stat.etag() + "\"");
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to cache image {} from MinIO: {}", objectName, e.getMessage());
+            throw new RuntimeException("Failed to load image " + objectName, e);
+        }
+    }
+
+    private void clear() throws IOException {
+        try (Stream<Path> files = Files.list(CACHE_DIR)) {
+            files.forEach(this::delete);
+        }
+    }
+
+    private void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached image {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -1,15 +1,40 @@
 package com.example.demo.services;
 
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.minio.BucketExistsArgs;
+import io.minio.CopyObjectArgs;
+import io.minio.CopySource;
+import io.minio.Directive;
+import io.minio.GetObjectArgs;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.ListObjectsArgs;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -18,58 +43,215 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class MinioService {
 
+    private static final int REMOVE_BATCH_SIZE = 1000;
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
     private final MinioClient minioClient;
+    @Qualifier("minioPresignClient")
+    private final MinioClient minioPresignClient;
+    private final MeterRegistry meterRegistry;
 
     @Value("${minio.endpoint}")
     private String ENDPOINT_MINIO;
 
-    public String uploadImageToMinio(String bucketName, String objectName, InputStream inputStream, long contentLength) {
-        try {
-            boolean isExist = minioClient.bucketExists(
-                BucketExistsArgs.builder().bucket(bucketName).build());
+    @Value("${minio.bucket}")
+    private String BUCKET_NAME;
 
-            if (!isExist) {
-                minioClient.makeBucket(
-                    MakeBucketArgs.builder().bucket(bucketName).build());
-            }
+    @Value("${minio.serving.base-url:}")
+    private String SERVING_BASE_URL;
+
+    private DistributionSummary uploadedBytes;
+    private Counter deletedObjects;
 
-            String contentType = "image/jpeg";
+    @PostConstruct
+    public void init() {
+        uploadedBytes = DistributionSummary.builder("minio.upload.size")
+            .description("Size of objects uploaded to MinIO")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        deletedObjects = Counter.builder("minio.deleted")
+            .description("Objects deleted from MinIO")
+            .register(meterRegistry);
+    }
+
+    public String uploadImageToMinio(String bucketName, String objectName, InputStream inputStream, long contentLength, String contentType) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            ensureBucket(bucketName);
 
             minioClient.putObject(PutObjectArgs.builder()
                 .bucket(bucketName)
                 .object(objectName)
                 .contentType(contentType)
+                .headers(Map.of("Cache-Control", IMMUTABLE_CACHE_CONTROL))
                 .stream(inputStream, contentLength, -1)
                 .build());
-            
-            String imageUrl = ENDPOINT_MINIO + "/" + bucketName + "/" + objectName;
-            return imageUrl;
+
+            stopTimer(sample, "upload", "success");
+            uploadedBytes.record(contentLength);
+            return getImageUrl(bucketName, objectName);
         } catch (Exception e) {
+            stopTimer(sample, "upload", "error");
             log.error(e.getMessage(), e);
             return null;
         }
     }
 
-    public String updateImageInMinio(String bucketName, String objectName, InputStream newInputStream, long newContentLength) {
+    // Copies the source only while it still has the given ETag, so what is copied is what was checked.
+    public String copyObject(String bucketName, String sourceObjectName, String sourceEtag, String objectName, String contentType) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            deleteFile(bucketName, objectName);
-            return uploadImageToMinio(bucketName, objectName, newInputStream, newContentLength);
+            minioClient.copyObject(CopyObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .source(CopySource.builder()
+                    .bucket(bucketName)
+                    .object(sourceObjectName)
+                    .matchETag(sourceEtag)
+                    .build())
+                .metadataDirective(Directive.REPLACE)
+                .headers(Map.of("Content-Type", contentType, "Cache-Control", IMMUTABLE_CACHE_CONTROL))
+                .build());
         } catch (Exception e) {
-            log.error("Error updating file in MinIO: {}", e.getMessage(), e);
-            return null;
+            stopTimer(sample, "copy", "error");
+            throw e;
         }
+        stopTimer(sample, "copy", "success");
+
+        return getImageUrl(bucketName, objectName);
+    }
+
+    public String presignUpload(String bucketName, String objectName, Duration expiry) throws Exception {
+        ensureBucket(bucketName);
+
+        return minioPresignClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+            .method(Method.PUT)
+            .bucket(bucketName)
+            .object(objectName)
+            .expiry((int) expiry.toSeconds())
+            .build());
+    }
+
+    public Optional<StatObjectResponse> statObject(String bucketName, String objectName) throws Exception {
+        try {
+            return Optional.of(minioClient.statObject(StatObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .build()));
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    public byte[] readObjectHead(String bucketName, String objectName, int length) throws Exception {
+        try (InputStream inputStream = minioClient.getObject(GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .offset(0L)
+                .length((long) length)
+                .build())) {
+            return inputStream.readNBytes(length);
+        }
+    }
+
+    public InputStream getObject(String bucketName, String objectName) throws Exception {
+        return minioClient.getObject(GetObjectArgs.builder()
+            .bucket(bucketName)
+            .object(objectName)
+            .build());
+    }
+
+    public Iterable<Result<Item>> listObjects(String bucketName) {
+        return minioClient.listObjects(ListObjectsArgs.builder()
+            .bucket(bucketName)
+            .recursive(true)
+            .build());
+    }
+
+    public String getImageUrl(String bucketName, String objectName) {
+        if (!SERVING_BASE_URL.isBlank() && bucketName.equals(BUCKET_NAME)) {
+            return SERVING_BASE_URL + "/" + objectName;
+        }
+        return ENDPOINT_MINIO + "/" + bucketName + "/" + objectName;
     }
 
     public void deleteFile(String bucketName, String objectName) {
+        try {
+            removeObject(bucketName, objectName);
+        } catch (Exception e) {
+            log.error("Error deleting file from MinIO: {}", e.getMessage(), e);
+        }
+    }
+
+    public void removeObject(String bucketName, String objectName) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             minioClient.removeObject(RemoveObjectArgs.builder()
                 .bucket(bucketName)
                 .object(objectName)
                 .build());
-
-            log.info("File {} successfully deleted from bucket {}", objectName, bucketName);
         } catch (Exception e) {
-            log.error("Error deleting file from MinIO: {}", e.getMessage(), e);
+            stopTimer(sample, "delete", "error");
+            throw e;
+        }
+        stopTimer(sample, "delete", "success");
+        deletedObjects.increment();
+
+        log.info("File {} successfully deleted from bucket {}", objectName, bucketName);
+    }
+
+    public int removeObjects(String bucketName, List<String> objectNames) {
+        int failed = 0;
+
+        for (int from = 0; from < objectNames.size(); from += REMOVE_BATCH_SIZE) {
+            List<DeleteObject> batch = objectNames.subList(from, Math.min(from + REMOVE_BATCH_SIZE, objectNames.size())).stream()
+                .map(DeleteObject::new)
+                .toList();
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Iterable<Result<DeleteError>> errors = minioClient.removeObjects(RemoveObjectsArgs.builder()
+                .bucket(bucketName)
+                .objects(batch)
+                .build());
+
+            // The deletes are only sent while the lazy result is iterated.
+            int batchFailed = 0;
+            for (Result<DeleteError> result : errors) {
+                batchFailed++;
+                try {
+                    DeleteError error = result.get();
+                    log.error("Error deleting file {} from MinIO: {}", error.objectName(), error.message());
+                } catch (Exception e) {
+                    log.error("Error deleting files from MinIO: {}", e.getMessage(), e);
+                }
+            }
+
+            stopTimer(sample, "delete_batch", batchFailed == 0 ? "success" : "error");
+            deletedObjects.increment(batch.size() - batchFailed);
+            failed += batchFailed;
+        }
+
+        return failed;
+    }
+
+    private void stopTimer(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(Timer.builder("minio.requests")
+            .description("Latency of MinIO object uploads, copies and deletes")
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+    }
+
+    private void ensureBucket(String bucketName) throws Exception {
+        boolean isExist = minioClient.bucketExists(
+            BucketExistsArgs.builder().bucket(bucketName).build());
+
+        if (!isExist) {
+            minioClient.makeBucket(
+                MakeBucketArgs.builder().bucket(bucketName).build());
         }
     }
 }
@@ -0,0 +1,241 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.configs.CacheConfig;
+import com.example.demo.entities.PostStore;
+import com.example.demo.events.PostChangedEvent;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "posts.mongodb.change-stream.enabled", havingValue = "true")
+public class MongodbChangeStreamListener {
+
+    private static final String POSTS_COLLECTION = "posts";
+    private static final String TOKENS_COLLECTION = "change_stream_tokens";
+    private static final String LOCK_KEY = "mongodb:change-stream:lock";
+
+    private static final RedisScript<Long> RENEW_LOCK_SCRIPT = RedisScript.of("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+        end
+        return 0
+        """, Long.class);
+
+    @Value("${posts.mongodb.change-stream.token-flush-interval:1s}")
+    private Duration TOKEN_FLUSH_INTERVAL;
+
+    @Value("${posts.mongodb.change-stream.max-await-time:1s}")
+    private Duration MAX_AWAIT_TIME;
+
+    @Value("${posts.mongodb.change-stream.lock-ttl:30s}")
+    private Duration LOCK_TTL;
+
+    final private MongoTemplate mongoTemplate;
+    final private ApplicationEventPublisher eventPublisher;
+    final private CacheManager cacheManager;
+    final private StringRedisTemplate stringRedisTemplate;
+    final private MeterRegistry meterRegistry;
+
+    private final String lockOwner = UUID.randomUUID().toString();
+    private final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("mongodb-change-stream-");
+
+    private MessageListenerContainer container;
+    private volatile Subscription subscription;
+    private volatile BsonDocument lastToken;
+    private volatile long lastTokenFlushMillis;
+    // Every instance tails the stream to evict its own post cache, only the lock holder publishes
+    // PostChangedEvent and stores the shared resume token.
+    private volatile boolean publisher;
+
+    @PostConstruct
+    public void start() {
+        container = new DefaultMessageListenerContainer(mongoTemplate,
+            task -> threadFactory.newThread(task).start(),
+            e -> log.error("MongoDB change stream on {} failed: {}", POSTS_COLLECTION, e.toString()));
+        container.start();
+        publisher = tryAcquireLock();
+        subscribe(publisher ? loadToken() : null);
+    }
+
+    @PreDestroy
+    public void stop() {
+        container.stop();
+        flushToken();
+        if (publisher && lockOwner.equals(stringRedisTemplate.opsForValue().get(LOCK_KEY))) {
+            stringRedisTemplate.delete(LOCK_KEY);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${posts.mongodb.change-stream.watchdog-interval:10s}")
+    public void watchdog() {
+        flushToken();
+
+        boolean wasPublisher = publisher;
+        publisher = wasPublisher ? renewLock() : tryAcquireLock();
+
+        Subscription current = subscription;
+
+        if (publisher && !wasPublisher) {
+            // The previous publisher may have stopped behind this instance's position, so the new
+            // one resumes from the shared token and republishes whatever it had not stored yet.
+            log.info("Taking over publishing of MongoDB change stream events on {}", POSTS_COLLECTION);
+            container.remove(current);
+            lastToken = null;
+            subscribe(loadToken());
+        } else if (current != null && !current.isActive()) {
+            log.warn("MongoDB change stream on {} is not active, resubscribing from the last token", POSTS_COLLECTION);
+            container.remove(current);
+            BsonDocument token = lastToken;
+            subscribe(token == null && publisher ? loadToken() : token);
+        } else if (wasPublisher && !publisher) {
+            log.warn("Lost the MongoDB change stream lock, another instance publishes events on {}", POSTS_COLLECTION);
+        }
+    }
+
+    private boolean tryAcquireLock() {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, lockOwner, LOCK_TTL));
+        } catch (Exception e) {
+            log.warn("Failed to acquire the MongoDB change stream lock: {}", e.toString());
+            return false;
+        }
+    }
+
+    private boolean renewLock() {
+        try {
+            Long renewed = stringRedisTemplate.execute(RENEW_LOCK_SCRIPT, List.of(LOCK_KEY), lockOwner, String.valueOf(LOCK_TTL.toMillis()));
+            return renewed != null && renewed == 1;
+        } catch (Exception e) {
+            log.warn("Failed to renew the MongoDB change stream lock: {}", e.toString());
+            return false;
+        }
+    }
+
+    private void subscribe(BsonDocument token) {
+        ChangeStreamRequest.ChangeStreamRequestBuilder<Document> request = ChangeStreamRequest.<Document>builder(this::onMessage)
+            .collection(POSTS_COLLECTION)
+            .filter(Aggregation.newAggregation(Aggregation.match(
+                Criteria.where("operationType").in("insert", "update", "replace", "delete"))))
+            .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+            .fullDocumentBeforeChangeLookup(FullDocumentBeforeChange.WHEN_AVAILABLE)
+            .maxAwaitTime(MAX_AWAIT_TIME);
+
+        if (token != null) {
+            request.startAfter(token);
+        }
+
+        subscription = container.register(request.build(), Document.class);
+    }
+
+    private void onMessage(Message<ChangeStreamDocument<Document>, Document> message) {
+        ChangeStreamDocument<Document> change = message.getRaw();
+
+        String postId = postId(change.getDocumentKey());
+        Document document = change.getFullDocument() != null ? change.getFullDocument() : change.getFullDocumentBeforeChange();
+        String userId = document != null ? document.getString("userId") : null;
+        Instant occurredAt = change.getClusterTime() != null
+            ? Instant.ofEpochSecond(change.getClusterTime().getTime())
+            : Instant.now();
+
+        PostChangedEvent.Type type = switch (change.getOperationType()) {
+            case INSERT -> PostChangedEvent.Type.CREATED;
+            case DELETE -> PostChangedEvent.Type.DELETED;
+            default -> PostChangedEvent.Type.UPDATED;
+        };
+
+        Cache postsCache = cacheManager.getCache(CacheConfig.MONGODB_POSTS_CACHE);
+        if (postsCache != null && postId != null) {
+            postsCache.evict(postId);
+        }
+
+        if (publisher && userId != null) {
+            eventPublisher.publishEvent(new PostChangedEvent(PostStore.MONGODB, postId, userId, type, occurredAt));
+        } else if (publisher) {
+            log.debug("Change to post {} carries no userId, only the post cache was invalidated", postId);
+        }
+
+        meterRegistry.counter("posts.mongodb.change_stream.events", "type", type.name()).increment();
+
+        lastToken = change.getResumeToken();
+        if (System.currentTimeMillis() - lastTokenFlushMillis >= TOKEN_FLUSH_INTERVAL.toMillis()) {
+            flushToken();
+        }
+    }
+
+    private BsonDocument loadToken() {
+        Document stored = mongoTemplate.findById(POSTS_COLLECTION, Document.class, TOKENS_COLLECTION);
+        if (stored == null || stored.get("token") == null) {
+            return null;
+        }
+
+        return stored.get("token", Document.class).toBsonDocument();
+    }
+
+    private void flushToken() {
+        BsonDocument token = lastToken;
+        if (token == null || !publisher) {
+            return;
+        }
+
+        try {
+            mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(POSTS_COLLECTION)),
+                Update.update("token", Document.parse(token.toJson())).set("updatedAt", Instant.now()),
+                TOKENS_COLLECTION);
+            lastTokenFlushMillis = System.currentTimeMillis();
+        } catch (Exception e) {
+            log.warn("Failed to store MongoDB change stream resume token: {}", e.toString());
+        }
+    }
+
+    private String postId(BsonDocument documentKey) {
+        if (documentKey == null) {
+            return null;
+        }
+
+        BsonValue id = documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.ReconciliationReport;
+import com.example.demo.entities.Post;
+import com.example.demo.utils.BloomFilter;
+import com.example.demo.utils.ImageVariants;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.Result;
+import io.minio.messages.Item;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "minio.reconciler.enabled", havingValue = "true")
+public class OrphanImageReconciler {
+
+    private static final String LOCK_KEY = "minio:reconciler:lock";
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    @Value("${minio.bucket}")
+    private String BUCKET_NAME;
+
+    @Value("${minio.reconciler.grace-period:24h}")
+    private Duration GRACE_PERIOD;
+
+    @Value("${minio.reconciler.expected-images:20000000}")
+    private long EXPECTED_IMAGES;
+
+    @Value("${minio.reconciler.false-positive-rate:0.01}")
+    private double FALSE_POSITIVE_RATE;
+
+    @Value("${minio.reconciler.lock-ttl:6h}")
+    private Duration LOCK_TTL;
+
+    @Value("${minio.reconciler.dry-run:false}")
+    private boolean DRY_RUN;
+
+    final private ObjectProvider<PostService> postService;
+    final private MinioService minioService;
+    final private StagedImageService stagedImageService;
+    final private StringRedisTemplate stringRedisTemplate;
+    final private MeterRegistry meterRegistry;
+
+    private volatile ReconciliationReport lastReport;
+
+    private Counter deletedCounter;
+    private Counter reclaimedCounter;
+
+    @PostConstruct
+    public void init() {
+        deletedCounter = Counter.builder("images.reconciler.deleted")
+            .description("Orphaned images removed from MinIO by the reconciler")
+            .register(meterRegistry);
+        reclaimedCounter = Counter.builder("images.reconciler.reclaimed")
+            .description("Storage reclaimed from orphaned images")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${minio.reconciler.cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        if (!reconcile()) {
+            log.info("Skipping image reconciliation, another run is in progress");
+        }
+    }
+
+    public boolean reconcile() {
+        String lockOwner = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, lockOwner, LOCK_TTL))) {
+            return false;
+        }
+
+        ReconciliationReport report = new ReconciliationReport(DRY_RUN);
+        lastReport = report;
+
+        Thread.ofPlatform().name("image-reconciler").start(() -> {
+            try {
+                run(report);
+                report.setStatus(ReconciliationReport.Status.COMPLETED);
+                log.info("Image reconciliation finished: {}", report);
+            } catch (Exception e) {
+                report.setError(e.getMessage());
+                report.setStatus(ReconciliationReport.Status.FAILED);
+                log.error("Image reconciliation failed", e);
+            } finally {
+                report.setFinishedAt(Instant.now());
+                if (!report.isDryRun()) {
+                    stagedImageService.finishOrphanClaims(report.getStatus() == ReconciliationReport.Status.COMPLETED);
+                }
+                if (lockOwner.equals(stringRedisTemplate.opsForValue().get(LOCK_KEY))) {
+                    stringRedisTemplate.delete(LOCK_KEY);
+                }
+            }
+        });
+
+        return true;
+    }
+
+    public ReconciliationReport getLastReport() {
+        return lastReport;
+    }
+
+    private void run(ReconciliationReport report) throws Exception {
+        // Each image is stored as the original plus its thumbnail and web variants.
+        BloomFilter referenced = BloomFilter.create(EXPECTED_IMAGES * 3, FALSE_POSITIVE_RATE);
+        report.setBloomFilterBytes(referenced.sizeInBytes());
+
+        Consumer<Post> collect = post -> {
+            if (post.getImageUrl() != null) {
+                ImageVariants.withVariants(objectName(post.getImageUrl())).forEach(referenced::put);
+                report.setReferencedImages(report.getReferencedImages() + 1);
+            }
+        };
+        postService.getObject().exportPostgresPosts(collect::accept);
+        postService.getObject().exportMongodbPosts(collect::accept);
+        postService.getObject().exportRedisPosts(collect::accept);
+        postService.getObject().exportElasticsearchPosts(collect::accept);
+
+        // Anything newer than the grace period may belong to a write that is still in flight.
+        Instant modifiedBefore = report.getStartedAt().minus(GRACE_PERIOD);
+        List<Item> candidates = new ArrayList<>(DELETE_BATCH_SIZE);
+
+        for (Result<Item> result : minioService.listObjects(BUCKET_NAME)) {
+            Item item = result.get();
+            if (item.isDir()) {
+                continue;
+            }
+
+            report.setScannedObjects(report.getScannedObjects() + 1);
+            if (referenced.mightContain(item.objectName())) {
+                continue;
+            }
+            if (item.lastModified().toInstant().isAfter(modifiedBefore)) {
+                report.setSkippedRecent(report.getSkippedRecent() + 1);
+                continue;
+            }
+
+            candidates.add(item);
+            if (candidates.size() == DELETE_BATCH_SIZE) {
+                removeOrphans(report, candidates);
+                candidates.clear();
+            }
+        }
+
+        removeOrphans(report, candidates);
+    }
+
+    private void removeOrphans(ReconciliationReport report, List<Item> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> sizes = candidates.stream().collect(Collectors.toMap(Item::objectName, Item::size));
+        List<String> orphans = stagedImageService.claimOrphans(new ArrayList<>(sizes.keySet()), report.isDryRun());
+        long orphanBytes = orphans.stream().mapToLong(sizes::get).sum();
+
+        report.setSkippedPending(report.getSkippedPending() + candidates.size() - orphans.size());
+        report.setOrphans(report.getOrphans() + orphans.size());
+
+        if (report.isDryRun() || orphans.isEmpty()) {
+            return;
+        }
+
+        int failed;
+        try {
+            failed = minioService.removeObjects(BUCKET_NAME, orphans);
+        } finally {
+            stagedImageService.finishOrphanRemoval(orphans);
+        }
+        report.setDeletedObjects(report.getDeletedObjects() + orphans.size() - failed);
+        report.setFailedDeletes(report.getFailedDeletes() + failed);
+        deletedCounter.increment(orphans.size() - failed);
+
+        // removeObjects only reports how many failed, so a batch with failures is not counted as reclaimed.
+        if (failed == 0) {
+            report.setReclaimedBytes(report.getReclaimedBytes() + orphanBytes);
+            reclaimedCounter.increment(orphanBytes);
+        }
+    }
+
+    private String objectName(String imageUrl) {
+        return imageUrl.substring(imageUrl.lastIndexOf('/') + 1);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entities.OutboxEvent;
+import com.example.demo.events.OutboxEventHandler;
+import com.example.demo.repositories.OutboxEventRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "posts.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    @Value("${posts.outbox.relay.batch-size:100}")
+    private int BATCH_SIZE;
+
+    @Value("${posts.outbox.relay.parallelism:2}")
+    private int PARALLELISM;
+
+    @Value("${posts.outbox.relay.max-attempts:10}")
+    private int MAX_ATTEMPTS;
+
+    @Value("${posts.outbox.relay.lease:30s}")
+    private Duration LEASE;
+
+    @Value("${posts.outbox.relay.retry-backoff:1s}")
+    private Duration RETRY_BACKOFF;
+
+    final private OutboxEventRepository outboxEventRepository;
+    final private TransactionTemplate transactionTemplate;
+    final private List<OutboxEventHandler> handlers;
+    final private MeterRegistry meterRegistry;
+
+    private Map<String, OutboxEventHandler> handlersByType;
+    private ExecutorService executor;
+    private Semaphore workers;
+
+    @PostConstruct
+    public void init() {
+        handlersByType = handlers.stream()
+            .collect(Collectors.toMap(OutboxEventHandler::getType, Function.identity()));
+        executor = Executors.newFixedThreadPool(PARALLELISM, new CustomizableThreadFactory("outbox-relay-"));
+        workers = new Semaphore(PARALLELISM);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${posts.outbox.relay.poll-interval:500ms}")
+    public void poll() {
+        while (workers.tryAcquire()) {
+            executor.execute(() -> {
+                try {
+                    drain();
+                } catch (Exception e) {
+                    log.error("Outbox relay worker failed", e);
+                } finally {
+                    workers.release();
+                }
+            });
+        }
+    }
+
+    private void drain() {
+        List<OutboxEvent> batch;
+
+        do {
+            batch = claimNextBatch();
+
+            List<String> delivered = new ArrayList<>(batch.size());
+            for (OutboxEvent event : batch) {
+                if (dispatch(event)) {
+                    delivered.add(event.getId());
+                }
+            }
+
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(delivered);
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    private List<OutboxEvent> claimNextBatch() {
+        return transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.lockNextBatch(Instant.now(), MAX_ATTEMPTS, BATCH_SIZE);
+
+            if (!events.isEmpty()) {
+                outboxEventRepository.lease(events.stream().map(OutboxEvent::getId).toList(), Instant.now().plus(LEASE));
+            }
+
+            return events;
+        });
+    }
+
+    private boolean dispatch(OutboxEvent event) {
+        OutboxEventHandler handler = handlersByType.get(event.getType());
+
+        try {
+            if (handler == null) {
+                throw new IllegalStateException("No outbox handler for event type " + event.getType());
+            }
+
+            handler.handle(event);
+            meterRegistry.counter("posts.outbox.dispatched", "type", event.getType(), "outcome", "success").increment();
+            return true;
+        } catch (Exception e) {
+            int attempt = event.getAttempts() + 1;
+            Instant retryAt = Instant.now().plus(RETRY_BACKOFF.multipliedBy(1L << Math.min(attempt - 1, 10)));
+
+            transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.recordFailure(event.getId(), e.toString(), retryAt));
+            meterRegistry.counter("posts.outbox.dispatched", "type", event.getType(), "outcome", "failure").increment();
+
+            if (attempt >= MAX_ATTEMPTS) {
+                log.error("Outbox event {} gave up after {} attempts and is kept for inspection", event.getId(), attempt, e);
+            } else {
+                log.warn("Outbox event {} failed on attempt {}, retrying at {}: {}", event.getId(), attempt, retryAt, e.toString());
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.services;
+
+import java.time.Instant;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entities.OutboxEvent;
+import com.example.demo.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    public static final String POST_CHANGED = "post.changed";
+    public static final String IMAGE_DELETED = "image.deleted";
+
+    final private OutboxEventRepository outboxEventRepository;
+    final private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String type, Object payload) {
+        Instant now = Instant.now();
+
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                .type(type)
+                .payload(objectMapper.writeValueAsString(payload))
+                .createdAt(now)
+                .availableAt(now)
+                .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload of type " + type + " is not serializable", e);
+        }
+    }
+
+    public <T> T readPayload(OutboxEvent event, Class<T> payloadType) throws JsonProcessingException {
+        return objectMapper.readValue(event.getPayload(), payloadType);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.demo.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.demo.entities.Post;
+import com.example.demo.entities.PostElasticsearch;
+import com.example.demo.entities.PostMongodb;
+import com.example.demo.entities.PostPostgres;
+import com.example.demo.entities.PostRedis;
+import com.example.demo.entities.PostStore;
+import com.example.demo.events.PostChangedEvent;
+import com.example.demo.exception.exceptions.BadRequestException;
+import com.example.demo.repositories.PostElasticsearchRepository;
+import com.example.demo.repositories.PostMongodbRepository;
+import com.example.demo.repositories.PostPostgresRepository;
+import com.example.demo.repositories.PostRedisRepository;
+import com.example.demo.security.IUserProfile;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostBulkService {
+
+    @Value("${posts.bulk.max-size:1000}")
+    private int MAX_BULK_SIZE;
+
+    @Value("${posts.bulk.upload-concurrency:8}")
+    private int UPLOAD_CONCURRENCY;
+
+    final private PostPostgresRepository postPostgresRepository;
+    final private PostMongodbRepository postMongodbRepository;
+    final private PostRedisRepository postRedisRepository;
+    final private PostElasticsearchRepository postElasticsearchRepository;
+    final private StagedImageService stagedImageService;
+    final private OutboxService outboxService;
+    final private TransactionTemplate transactionTemplate;
+    final private ApplicationEventPublisher eventPublisher;
+
+    private ExecutorService uploadExecutor;
+
+    @PostConstruct
+    public void init() {
+        uploadExecutor = Executors.newFixedThreadPool(UPLOAD_CONCURRENCY, new CustomizableThreadFactory("bulk-upload-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
+    public List<String> savePostsToPostgres(List<String> texts, List<MultipartFile> imageFiles) {
+        List<PostPostgres> posts = buildPosts(texts, imageFiles, (userId, text, imageUrl) -> PostPostgres.builder()
+                .userId(userId)
+                .text(text)
+                .imageUrl(imageUrl)
+                .build());
+
+        writeStaged(posts, () -> transactionTemplate.executeWithoutResult(status -> {
+            postPostgresRepository.saveAll(posts);
+            posts.forEach(post -> outboxService.enqueue(OutboxService.POST_CHANGED,
+                new PostChangedEvent(PostStore.POSTGRES, post.getId(), post.getUserId(), PostChangedEvent.Type.CREATED)));
+        }));
+        log.info("{} posts saved to PostgreSQL.", posts.size());
+
+        return ids(posts);
+    }
+
+    public List<String> savePostsToMongodb(List<String> texts, List<MultipartFile> imageFiles) {
+        List<PostMongodb> posts = buildPosts(texts, imageFiles, (userId, text, imageUrl) -> PostMongodb.builder()
+                .userId(userId)
+                .text(text)
+                .imageUrl(imageUrl)
+                .build());
+
+        writeStaged(posts, () -> postMongodbRepository.insert(posts));
+        publishCreated(PostStore.MONGODB, posts);
+        log.info("{} posts saved to MongoDB.", posts.size());
+
+        return ids(posts);
+    }
+
+    public List<String> savePostsToRedis(List<String> texts, List<MultipartFile> imageFiles) {
+        List<PostRedis> posts = buildPosts(texts, imageFiles, (userId, text, imageUrl) -> PostRedis.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .text(text)
+                .imageUrl(imageUrl)
+                .build());
+
+        writeStaged(posts, () -> postRedisRepository.saveAll(posts));
+        publishCreated(PostStore.REDIS, posts);
+        log.info("{} posts saved to Redis.", posts.size());
+
+        return ids(posts);
+    }
+
+    public List<String> savePostsToElasticsearch(List<String> texts, List<MultipartFile> imageFiles) {
+        List<PostElasticsearch> posts = buildPosts(texts, imageFiles, (userId, text, imageUrl) -> PostElasticsearch.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .text(text)
+                .imageUrl(imageUrl)
+                .build());
+
+        writeStaged(posts, () -> postElasticsearchRepository.saveAll(posts));
+        publishCreated(PostStore.ELASTICSEARCH, posts);
+        log.info("{} posts saved to Elasticsearch.", posts.size());
+
+        return ids(posts);
+    }
+
+    private <T extends Post> List<T> buildPosts(List<String> texts, List<MultipartFile> imageFiles, PostFactory<T> factory) {
+        validate(texts, imageFiles);
+
+        IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String userId = principal.getUserId();
+        List<String> imageUrls = uploadImages(imageFiles);
+
+        List<T> posts = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            posts.add(factory.create(userId, texts.get(i), imageUrls.get(i)));
+        }
+
+        return posts;
+    }
+
+    private void validate(List<String> texts, List<MultipartFile> imageFiles) {
+        if (texts == null || texts.isEmpty()) {
+            throw new BadRequestException("At least one post must be provided");
+        }
+
+        if (imageFiles == null || imageFiles.size() != texts.size()) {
+            throw new BadRequestException("Every post must have exactly one image file");
+        }
+
+        if (texts.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("At most " + MAX_BULK_SIZE + " posts can be created in one request");
+        }
+
+        if (texts.stream().anyMatch(text -> text == null || text.isBlank())) {
+            throw new BadRequestException("Text must not be empty");
+        }
+    }
+
+    private List<String> uploadImages(List<MultipartFile> imageFiles) {
+        List<CompletableFuture<String>> uploads = imageFiles.stream()
+            .map(imageFile -> CompletableFuture.supplyAsync(() -> stagedImageService.stage(imageFile), uploadExecutor))
+            .toList();
+
+        try {
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).join();
+            return uploads.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to upload images to MinIO", e.getCause());
+        }
+    }
+
+    private void writeStaged(List<? extends Post> posts, Runnable write) {
+        List<String> imageUrls = posts.stream().map(Post::getImageUrl).toList();
+
+        stagedImageService.retainAll(imageUrls);
+
+        try {
+            write.run();
+        } catch (RuntimeException e) {
+            stagedImageService.releaseAfterFailedWrite(imageUrls, e);
+            throw e;
+        }
+    }
+
+    private void publishCreated(PostStore store, List<? extends Post> posts) {
+        posts.forEach(post -> eventPublisher.publishEvent(
+            new PostChangedEvent(store, post.getId(), post.getUserId(), PostChangedEvent.Type.CREATED)));
+    }
+
+    private List<String> ids(List<? extends Post> posts) {
+        return posts.stream().map(Post::getId).toList();
+    }
+
+    private interface PostFactory<T extends Post> {
+
+        T create(String userId, String text, String imageUrl);
+    }
+}
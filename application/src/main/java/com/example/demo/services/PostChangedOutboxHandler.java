@@ -0,0 +1,28 @@
+package com.example.demo.services;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entities.OutboxEvent;
+import com.example.demo.events.OutboxEventHandler;
+import com.example.demo.events.PostChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class PostChangedOutboxHandler implements OutboxEventHandler {
+
+    final private OutboxService outboxService;
+    final private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String getType() {
+        return OutboxService.POST_CHANGED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        eventPublisher.publishEvent(outboxService.readPayload(event, PostChangedEvent.class));
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.entities.Post;
+import com.example.demo.entities.PostReadModel;
+import com.example.demo.entities.PostStore;
+import com.example.demo.events.PostChangedEvent;
+import com.example.demo.repositories.PostElasticsearchRepository;
+import com.example.demo.repositories.PostMongodbRepository;
+import com.example.demo.repositories.PostPostgresRepository;
+import com.example.demo.repositories.PostReadModelRepository;
+import com.example.demo.repositories.PostRedisRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "posts.read-model.enabled", havingValue = "true")
+public class PostReadModelProjector {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Value("${posts.read-model.max-lag:5s}")
+    private Duration MAX_LAG;
+
+    @Value("${posts.read-model.projector.pool-size:4}")
+    private int POOL_SIZE;
+
+    @Value("${posts.read-model.projector.queue-capacity:10000}")
+    private int QUEUE_CAPACITY;
+
+    @Value("${posts.read-model.projector.max-attempts:3}")
+    private int MAX_ATTEMPTS;
+
+    @Value("${posts.read-model.projector.retry-backoff:200ms}")
+    private Duration RETRY_BACKOFF;
+
+    final private PostPostgresRepository postPostgresRepository;
+    final private PostMongodbRepository postMongodbRepository;
+    final private PostRedisRepository postRedisRepository;
+    final private PostElasticsearchRepository postElasticsearchRepository;
+    final private PostReadModelRepository postReadModelRepository;
+    final private ObjectProvider<PostService> postService;
+    final private MeterRegistry meterRegistry;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean trackingChanges;
+    // Changes that did not fit into their lane, latest per document, resubmitted by drainOverflow.
+    private final ConcurrentMap<String, PostChangedEvent> overflow = new ConcurrentHashMap<>();
+    // Documents changed while a rebuild runs, projected again once it has written its batches.
+    private final ConcurrentMap<String, PostChangedEvent> changedDuringRebuild = new ConcurrentHashMap<>();
+    private volatile long lastLagMillis;
+
+    private ThreadPoolExecutor[] lanes;
+    private Timer lagTimer;
+
+    @PostConstruct
+    public void init() {
+        // Every change to a document goes through the same single-threaded lane, so a projection that
+        // reloads a post can never save it after the projection of its delete.
+        lanes = new ThreadPoolExecutor[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, QUEUE_CAPACITY / POOL_SIZE)),
+                new CustomizableThreadFactory("read-model-" + i + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        lagTimer = Timer.builder("posts.read_model.lag")
+            .description("Time between a post change and its projection into the read index")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        meterRegistry.gauge("posts.read_model.backlog", this, PostReadModelProjector::backlog);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        String documentId = PostReadModel.documentId(event.getStore(), event.getPostId());
+        if (trackingChanges) {
+            changedDuringRebuild.put(documentId, event);
+        }
+        dispatch(documentId, event);
+    }
+
+    @Scheduled(fixedDelayString = "${posts.read-model.projector.overflow-drain-interval:1s}")
+    public void drainOverflow() {
+        for (String documentId : overflow.keySet()) {
+            PostChangedEvent event = overflow.remove(documentId);
+            if (event != null && !submit(documentId, event)) {
+                overflow.merge(documentId, event, (newer, older) -> newer);
+                return;
+            }
+        }
+    }
+
+    public boolean isWithinLagBound() {
+        return backlog() == 0 || lastLagMillis <= MAX_LAG.toMillis();
+    }
+
+    private long backlog() {
+        long queued = overflow.size();
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    private void dispatch(String documentId, PostChangedEvent event) {
+        // A document with overflowed changes keeps overflowing, so its changes stay in order.
+        if (overflow.containsKey(documentId) || !submit(documentId, event)) {
+            overflow.put(documentId, event);
+        }
+    }
+
+    private boolean submit(String documentId, PostChangedEvent event) {
+        try {
+            lanes[Math.floorMod(documentId.hashCode(), lanes.length)].execute(() -> project(event));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Thread.ofPlatform().name("read-model-rebuild").start(() -> {
+            try {
+                long startedAt = System.currentTimeMillis();
+                trackingChanges = true;
+
+                rebuildFrom(PostStore.POSTGRES, consumer -> postService.getObject().exportPostgresPosts(consumer::accept));
+                rebuildFrom(PostStore.MONGODB, consumer -> postService.getObject().exportMongodbPosts(consumer::accept));
+                rebuildFrom(PostStore.REDIS, consumer -> postService.getObject().exportRedisPosts(consumer::accept));
+                rebuildFrom(PostStore.ELASTICSEARCH, consumer -> postService.getObject().exportElasticsearchPosts(consumer::accept));
+
+                // An export may have read a post before a change and written it after the change was
+                // projected, so those documents are reloaded from their store once more.
+                trackingChanges = false;
+                changedDuringRebuild.forEach((documentId, event) -> dispatch(documentId,
+                    new PostChangedEvent(event.getStore(), event.getPostId(), event.getUserId(), PostChangedEvent.Type.UPDATED, event.getOccurredAt())));
+                changedDuringRebuild.clear();
+
+                postReadModelRepository.deleteProjectedBefore(startedAt);
+                log.info("Read index rebuild finished in {} ms", System.currentTimeMillis() - startedAt);
+            } catch (Exception e) {
+                log.error("Read index rebuild failed", e);
+            } finally {
+                trackingChanges = false;
+                changedDuringRebuild.clear();
+                rebuilding.set(false);
+            }
+        });
+
+        return true;
+    }
+
+    private void project(PostChangedEvent event) {
+        String documentId = PostReadModel.documentId(event.getStore(), event.getPostId());
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                Optional<? extends Post> post = event.getType() == PostChangedEvent.Type.DELETED
+                    ? Optional.empty()
+                    : findInStore(event.getStore(), event.getPostId());
+
+                if (post.isPresent()) {
+                    postReadModelRepository.save(PostReadModel.of(event.getStore(), post.get()));
+                } else {
+                    postReadModelRepository.deleteById(documentId);
+                }
+
+                Duration lag = Duration.between(event.getOccurredAt(), Instant.now());
+                lastLagMillis = lag.toMillis();
+                lagTimer.record(lag);
+                return;
+            } catch (Exception e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    log.error("Failed to project {} into the read index; it will be repaired by the next rebuild", event, e);
+                    return;
+                }
+
+                try {
+                    Thread.sleep(RETRY_BACKOFF.toMillis() * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Optional<? extends Post> findInStore(PostStore store, String postId) {
+        return switch (store) {
+            case POSTGRES -> postPostgresRepository.findById(postId);
+            case MONGODB -> postMongodbRepository.findById(postId);
+            case REDIS -> postRedisRepository.findById(postId);
+            case ELASTICSEARCH -> postElasticsearchRepository.findById(postId);
+        };
+    }
+
+    private void rebuildFrom(PostStore store, Consumer<Consumer<Post>> export) {
+        List<PostReadModel> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+
+        export.accept(post -> {
+            batch.add(PostReadModel.of(store, post));
+
+            if (batch.size() == REBUILD_BATCH_SIZE) {
+                postReadModelRepository.saveAll(batch);
+                batch.clear();
+            }
+        });
+
+        if (!batch.isEmpty()) {
+            postReadModelRepository.saveAll(batch);
+        }
+    }
+}
@@ -1,33 +1,64 @@
 package com.example.demo.services;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.demo.configs.CacheConfig;
+import com.example.demo.configs.FeedExecutors;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.PostFeed;
+import com.example.demo.dto.PostSearchHit;
 import com.example.demo.entities.Post;
 import com.example.demo.entities.PostElasticsearch;
 import com.example.demo.entities.PostMongodb;
 import com.example.demo.entities.PostPostgres;
 import com.example.demo.entities.PostRedis;
+import com.example.demo.entities.PostStore;
+import com.example.demo.events.ImageDeletedEvent;
+import com.example.demo.events.PostChangedEvent;
 import com.example.demo.exception.exceptions.AccessDeniedException;
+import com.example.demo.exception.exceptions.BadRequestException;
+import com.example.demo.exception.exceptions.ConflictException;
 import com.example.demo.exception.exceptions.ResourceNotFoundException;
 import com.example.demo.repositories.PostElasticsearchRepository;
 import com.example.demo.repositories.PostMongodbRepository;
 import com.example.demo.repositories.PostPostgresRepository;
+import com.example.demo.repositories.PostReadModelRepository;
 import com.example.demo.repositories.PostRedisRepository;
 import com.example.demo.security.IUserProfile;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,201 +67,317 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class PostService {
 
+    private static final int MAX_PAGE_LIMIT = 500;
+    private static final int UPDATE_ATTEMPTS = 3;
+
     @Value("${minio.bucket}")
     private String BUCKET_NAME;
 
+    @Value("${posts.read-model.serve-reads:false}")
+    private boolean SERVE_FROM_READ_MODEL;
+
     final private PostPostgresRepository postPostgresRepository;
     final private PostMongodbRepository postMongodbRepository;
     final private PostRedisRepository postRedisRepository;
     final private PostElasticsearchRepository postElasticsearchRepository;
-    final private MinioService minioService;
+    final private PostReadModelRepository postReadModelRepository;
+    final private ObjectProvider<PostReadModelProjector> postReadModelProjector;
+    final private EntityManager entityManager;
+    final private FeedExecutors feedExecutors;
+    final private FeedCacheService feedCacheService;
+    final private RequestCoalescer requestCoalescer;
+    final private ApplicationEventPublisher eventPublisher;
+    final private OutboxService outboxService;
+    final private StagedImageService stagedImageService;
+    final private TransactionTemplate transactionTemplate;
+    final private MeterRegistry meterRegistry;
+
+    public CompletableFuture<PostFeed> getPostsByUserId(String userId) {
+        return requestCoalescer.coalesceAsync("feed:" + userId, () ->
+            feedCacheService.getFeed(userId, () -> loadPostsByUserId(userId)));
+    }
 
-    @Transactional(readOnly = true)
-    public List<Post> getPostsByUserId(String userId) {
+    private CompletableFuture<PostFeed> loadPostsByUserId(String userId) {
+        PostReadModelProjector projector = postReadModelProjector.getIfAvailable();
+        if (!SERVE_FROM_READ_MODEL || projector == null || !projector.isWithinLagBound()) {
+            return loadPostsFromStores(userId);
+        }
 
-        CompletableFuture<List<PostPostgres>> postgresPostsFuture = CompletableFuture.supplyAsync(() -> 
-            postPostgresRepository.findAll().stream()
-                .filter(post -> post.getUserId().equals(userId))
-                .collect(Collectors.toList())
-        );
-        
-        CompletableFuture<List<PostMongodb>> mongodbPostsFuture = CompletableFuture.supplyAsync(() -> 
-            postMongodbRepository.findAll().stream()
-                .filter(post -> post.getUserId().equals(userId))
-                .collect(Collectors.toList())
-        );
-        
-        CompletableFuture<List<PostRedis>> redisPostsFuture = CompletableFuture.supplyAsync(() -> 
-            postRedisRepository.findAll().stream()
-                .filter(post -> post.getUserId().equals(userId))
-                .collect(Collectors.toList())
-        );
-        
-        CompletableFuture<List<PostElasticsearch>> elasticsearchPostsFuture = CompletableFuture.supplyAsync(() -> 
-            StreamSupport.stream(postElasticsearchRepository.findAll().spliterator(), false)
-                .filter(post -> post.getUserId().equals(userId))
-                .collect(Collectors.toList())
-        );
+        Duration timeout = feedExecutors.timeoutFor(PostStore.ELASTICSEARCH);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<PostFeed> future;
+
+        try {
+            future = CompletableFuture.supplyAsync(
+                () -> new PostFeed(new ArrayList<>(postReadModelRepository.findByUserId(userId)), new ArrayList<>()),
+                feedExecutors.executorFor(PostStore.ELASTICSEARCH));
+        } catch (RejectedExecutionException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future
+            .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((feed, e) -> recordFanOut(sample, "read_model", e))
+            .exceptionallyCompose(e -> {
+                log.warn("Read index is unavailable, falling back to querying every store: {}", e.toString());
+                return loadPostsFromStores(userId);
+            });
+    }
+
+    private CompletableFuture<PostFeed> loadPostsFromStores(String userId) {
+        Map<PostStore, CompletableFuture<List<? extends Post>>> futures = new EnumMap<>(PostStore.class);
+
+        futures.put(PostStore.POSTGRES, fetchFromStore(PostStore.POSTGRES, () -> postPostgresRepository.findByUserId(userId)));
+        futures.put(PostStore.MONGODB, fetchFromStore(PostStore.MONGODB, () -> postMongodbRepository.findByUserId(userId)));
+        futures.put(PostStore.REDIS, fetchFromStore(PostStore.REDIS, () -> postRedisRepository.findByUserId(userId)));
+        futures.put(PostStore.ELASTICSEARCH, fetchFromStore(PostStore.ELASTICSEARCH, () -> postElasticsearchRepository.findByUserId(userId)));
 
-        return CompletableFuture.allOf(postgresPostsFuture, mongodbPostsFuture, redisPostsFuture, elasticsearchPostsFuture)
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
             .thenApply(v -> {
-                try {
-                    List<Post> allPosts = new ArrayList<>();
-                    allPosts.addAll(postgresPostsFuture.get());
-                    allPosts.addAll(mongodbPostsFuture.get());
-                    allPosts.addAll(redisPostsFuture.get());
-                    allPosts.addAll(elasticsearchPostsFuture.get());
+                List<Post> allPosts = new ArrayList<>();
+                List<String> missingDatabases = new ArrayList<>();
 
-                    return allPosts;
-                } catch (Exception e) {
-                    throw new RuntimeException("Error while fetching posts by userId", e);
-                }
-            }).join();
+                futures.forEach((store, future) -> {
+                    List<? extends Post> posts = future.join();
+
+                    if (posts == null) {
+                        missingDatabases.add(store.getDatabase());
+                    } else {
+                        allPosts.addAll(posts);
+                    }
+                });
+
+                return new PostFeed(allPosts, missingDatabases);
+            });
     }
 
 
 
 
     @Transactional(readOnly = true)
-    public List<PostPostgres> getPostgresPosts() {
-        return postPostgresRepository.findAll();
+    public CursorPage<PostPostgres> getPostgresPosts(int limit, String cursor) {
+        int pageSize = normalizeLimit(limit);
+        String afterId = decodeCursor(cursor);
+
+        List<PostPostgres> posts = afterId == null
+                ? postPostgresRepository.findAllByOrderByIdAsc(Limit.of(pageSize))
+                : postPostgresRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize));
+        return toPage(posts, pageSize);
     }
 
     @Transactional(readOnly = true)
-    public List<PostMongodb> getMongodbPosts() {
-        return postMongodbRepository.findAll();
+    public CursorPage<PostMongodb> getMongodbPosts(int limit, String cursor) {
+        int pageSize = normalizeLimit(limit);
+        String afterId = decodeCursor(cursor);
+
+        List<PostMongodb> posts = afterId == null
+                ? postMongodbRepository.findAllByOrderByIdAsc(Limit.of(pageSize))
+                : postMongodbRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize));
+        return toPage(posts, pageSize);
     }
 
     @Transactional(readOnly = true)
-    public List<PostRedis> getRedisPosts() {
-        return postRedisRepository.findAll();
+    public CursorPage<PostRedis> getRedisPosts(int limit, String cursor) {
+        String scanCursor = decodeCursor(cursor);
+        if (scanCursor != null && !scanCursor.matches("\\d+")) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+
+        CursorPage<PostRedis> page = postRedisRepository.findPage(scanCursor, normalizeLimit(limit));
+        return new CursorPage<>(page.getItems(), encodeCursor(page.getNextCursor()));
     }
 
     @Transactional(readOnly = true)
-    public List<PostElasticsearch> getElasticsearchPosts() {
-        Iterable<PostElasticsearch> elasticsearchPosts = postElasticsearchRepository.findAll();
-        return StreamSupport.stream(elasticsearchPosts.spliterator(), false)
-                .collect(Collectors.toList());
+    public CursorPage<PostElasticsearch> getElasticsearchPosts(int limit, String cursor) {
+        int pageSize = normalizeLimit(limit);
+        List<PostElasticsearch> posts = postElasticsearchRepository.findPageAfter(decodeCursor(cursor), pageSize);
+        return toPage(posts, pageSize);
     }
 
 
 
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public void exportPostgresPosts(Consumer<PostPostgres> consumer) {
+        try (Stream<PostPostgres> posts = postPostgresRepository.streamAll()) {
+            posts.forEach(post -> {
+                consumer.accept(post);
+                entityManager.detach(post);
+            });
+        }
+    }
+
+    public void exportMongodbPosts(Consumer<PostMongodb> consumer) {
+        try (Stream<PostMongodb> posts = postMongodbRepository.streamAllBy()) {
+            posts.forEach(consumer);
+        }
+    }
+
+    public void exportRedisPosts(Consumer<PostRedis> consumer) {
+        postRedisRepository.forEach(consumer);
+    }
+
+    public void exportElasticsearchPosts(Consumer<PostElasticsearch> consumer) {
+        try (Stream<PostElasticsearch> posts = postElasticsearchRepository.streamAll()) {
+            posts.forEach(consumer);
+        }
+    }
+
+
+
+
+    @Cacheable(cacheNames = CacheConfig.POSTGRES_POSTS_CACHE, key = "#id")
     public PostPostgres getPostFromPostgresById(String id) {
-        return postPostgresRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found in PostgreSQL with ID: " + id));
+        return requestCoalescer.coalesce("postgres:" + id, () -> postPostgresRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found in PostgreSQL with ID: " + id)));
     }
 
-    @Transactional
+    @Cacheable(cacheNames = CacheConfig.MONGODB_POSTS_CACHE, key = "#id")
     public PostMongodb getPostFromMongodbById(String id) {
-        return postMongodbRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found in MongoDB with ID: " + id));
+        return requestCoalescer.coalesce("mongodb:" + id, () -> postMongodbRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found in MongoDB with ID: " + id)));
     }
 
-    @Transactional
+    @Cacheable(cacheNames = CacheConfig.REDIS_POSTS_CACHE, key = "#id")
     public PostRedis getPostFromRedisById(String id) {
+        return requestCoalescer.coalesce("redis:" + id, () -> postRedisRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found in Redis with ID: " + id)));
+    }
+
+    @Cacheable(cacheNames = CacheConfig.ELASTICSEARCH_POSTS_CACHE, key = "#id")
+    public PostElasticsearch getPostFromElasticsearchById(String id) {
+        return requestCoalescer.coalesce("elasticsearch:" + id, () -> postElasticsearchRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found in Elasticsearch with ID: " + id)));
+    }
+
+
+
+
+    public CursorPage<PostSearchHit> searchPosts(String text, String userId, int limit, String cursor) {
+        if (text == null || text.isBlank()) {
+            throw new BadRequestException("Search query must not be empty");
+        }
+
+        int pageSize = normalizeLimit(limit);
+        List<Object> searchAfter = decodeSearchAfter(cursor);
+        SearchHits<? extends Post> searchHits = SERVE_FROM_READ_MODEL
+                ? postReadModelRepository.search(text, userId, searchAfter, pageSize)
+                : postElasticsearchRepository.search(text, userId, searchAfter, pageSize);
+
+        List<PostSearchHit> hits = searchHits.getSearchHits().stream()
+                .map(hit -> new PostSearchHit(hit.getContent(), hit.getScore(), hit.getHighlightField("text")))
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hits.size() == pageSize) {
+            List<Object> sortValues = searchHits.getSearchHits().get(hits.size() - 1).getSortValues();
+            nextCursor = encodeCursor(sortValues.get(0) + "|" + sortValues.get(1));
+        }
+
+        return new CursorPage<>(hits, nextCursor);
+    }
+
+
+
+
+    public long getPostgresPostVersion(String id) {
+        return postPostgresRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found in PostgreSQL with ID: " + id));
+    }
+
+    public long getMongodbPostVersion(String id) {
+        return postMongodbRepository.findVersionById(id)
+                .map(PostMongodb::getVersion)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found in MongoDB with ID: " + id));
+    }
+
+    public long getRedisPostVersion(String id) {
         return postRedisRepository.findById(id)
+                .map(PostRedis::getVersion)
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found in Redis with ID: " + id));
     }
 
-    @Transactional
-    public PostElasticsearch getPostFromElasticsearchById(String id) {
-        return postElasticsearchRepository.findById(id)
+    public long getElasticsearchPostVersion(String id) {
+        return postElasticsearchRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found in Elasticsearch with ID: " + id));
     }
 
 
 
 
-    @Transactional
     public void savePostToPostgres(String text, MultipartFile imageFile) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
-        String imageUrl = uploadImageToMinio(imageFile);
 
-        PostPostgres postPostgres = PostPostgres.builder()
-                .userId(userId)
-                .text(text)
-                .imageUrl(imageUrl)
-                .build();
-        postPostgresRepository.save(postPostgres);
+        stagedImageService.withStagedImage(imageFile, imageUrl -> insertPostToPostgres(userId, text, imageUrl));
         log.info("Post saved to PostgreSQL.");
     }
 
-    @Transactional
     public void savePostToMongodb(String text, MultipartFile imageFile) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
-        String imageUrl = uploadImageToMinio(imageFile);
 
-        PostMongodb postMongodb = PostMongodb.builder()
-                .userId(userId)
-                .text(text)
-                .imageUrl(imageUrl)
-                .build();
-        postMongodbRepository.save(postMongodb);
+        stagedImageService.withStagedImage(imageFile, imageUrl -> insertPostToMongodb(userId, text, imageUrl));
         log.info("Post saved to MongoDB.");
     }
 
-    @Transactional
     public void savePostToRedis(String text, MultipartFile imageFile) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
-        String imageUrl = uploadImageToMinio(imageFile);
 
-        PostRedis postRedis = PostRedis.builder()
-                .id(UUID.randomUUID().toString())
-                .userId(userId)
-                .text(text)
-                .imageUrl(imageUrl)
-                .build();
-        postRedisRepository.save(postRedis);
+        stagedImageService.withStagedImage(imageFile, imageUrl -> insertPostToRedis(userId, text, imageUrl));
         log.info("Post saved to Redis.");
     }
 
-    @Transactional
     public void savePostToElasticsearch(String text, MultipartFile imageFile) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
-        String imageUrl = uploadImageToMinio(imageFile);
 
-        PostElasticsearch postElasticsearch = PostElasticsearch.builder()
-                .userId(userId)
-                .text(text)
-                .imageUrl(imageUrl)
-                .build();
-        postElasticsearchRepository.save(postElasticsearch);
+        stagedImageService.withStagedImage(imageFile, imageUrl -> insertPostToElasticsearch(userId, text, imageUrl));
         log.info("Post saved to Elasticsearch.");
     }
 
+    public String savePostWithUploadedImage(PostStore store, String userId, String text, String imageUrl) {
+        Post post = switch (store) {
+            case POSTGRES -> insertPostToPostgres(userId, text, imageUrl);
+            case MONGODB -> insertPostToMongodb(userId, text, imageUrl);
+            case REDIS -> insertPostToRedis(userId, text, imageUrl);
+            case ELASTICSEARCH -> insertPostToElasticsearch(userId, text, imageUrl);
+        };
 
+        log.info("Post with uploaded image saved to {}.", store.getDatabase());
+        return post.getId();
+    }
 
 
-    @Transactional
+
+
+    @CacheEvict(cacheNames = CacheConfig.POSTGRES_POSTS_CACHE, key = "#postId")
     public void updatePostInPostgres(String postId, String text, MultipartFile imageFile) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
-        PostPostgres postPostgres = postPostgresRepository.findById(postId).orElse(null);
-
-        if (postPostgres == null) {
-            throw new ResourceNotFoundException("Post not found in PostgreSQL with ID: " + postId);
-        }
+        checkPostgresPostOwner(postId, userId, "update");
 
-        if (!postPostgres.getUserId().equals(userId)) {
-            throw new AccessDeniedException("Access denied to update the post with ID " + postId);
-        }
+        stagedImageService.withStagedImage(imageFile, imageUrl -> transactionTemplate.execute(status -> {
+            PostPostgres postPostgres = checkPostgresPostOwner(postId, userId, "update");
 
-        String imageUrl = updateImageInMinio(imageFile, postPostgres.getImageUrl());
+            if (postPostgres.getImageUrl() != null) {
+                outboxService.enqueue(OutboxService.IMAGE_DELETED, new ImageDeletedEvent(BUCKET_NAME, getObjectNameByImageUrl(postPostgres.getImageUrl())));
+            }
 
-        postPostgres.setText(text);
-        postPostgres.setImageUrl(imageUrl);
+            postPostgres.setText(text);
+            postPostgres.setImageUrl(imageUrl);
+            postPostgres.setThumbnailUrl(null);
+            postPostgres.setWebUrl(null);
 
-        postPostgresRepository.save(postPostgres);
+            postPostgresRepository.save(postPostgres);
+            outboxService.enqueue(OutboxService.POST_CHANGED, new PostChangedEvent(PostStore.POSTGRES, postId, userId, PostChangedEvent.Type.UPDATED));
+            return postPostgres;
+        }));
         log.info("Post with ID {} updated in PostgreSQL.", postId);
     }
 
-    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.MONGODB_POSTS_CACHE, key = "#postId")
     public void updatePostInMongodb(String postId, String text, MultipartFile imageFile) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
@@ -244,16 +391,18 @@ public class PostService {
             throw new AccessDeniedException("Access denied to update the post with ID " + postId);
         }
 
-        String imageUrl = updateImageInMinio(imageFile, postMongodb.getImageUrl());
+        String previousImageUrl = stagedImageService.withStagedImage(imageFile, imageUrl ->
+            replaceContent(PostStore.MONGODB, postMongodb, () -> postMongodbRepository.findById(postId),
+                current -> postMongodbRepository.updateContent(postId, current.getVersion(), text, imageUrl) == 1));
+        eventPublisher.publishEvent(new PostChangedEvent(PostStore.MONGODB, postId, userId, PostChangedEvent.Type.UPDATED));
 
-        postMongodb.setText(text);
-        postMongodb.setImageUrl(imageUrl);
-
-        postMongodbRepository.save(postMongodb);
+        if (previousImageUrl != null) {
+            releaseImage(previousImageUrl);
+        }
         log.info("Post with ID {} updated in MongoDB.", postId);
     }
 
-    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.REDIS_POSTS_CACHE, key = "#postId")
     public void updatePostInRedis(String postId, String text, MultipartFile imageFile) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
@@ -267,16 +416,25 @@ public class PostService {
             throw new AccessDeniedException("Access denied to update the post with ID " + postId);
         }
 
-        String imageUrl = updateImageInMinio(imageFile, postRedis.getImageUrl());
-
-        postRedis.setText(text);
-        postRedis.setImageUrl(imageUrl);
-
-        postRedisRepository.save(postRedis);
+        String previousImageUrl = stagedImageService.withStagedImage(imageFile, imageUrl ->
+            replaceContent(PostStore.REDIS, postRedis, () -> postRedisRepository.findById(postId), current -> {
+                long version = current.getVersion();
+                current.setText(text);
+                current.setImageUrl(imageUrl);
+                current.setThumbnailUrl(null);
+                current.setWebUrl(null);
+                current.setVersion(version + 1);
+                return postRedisRepository.replaceIfVersion(current, version);
+            }));
+        eventPublisher.publishEvent(new PostChangedEvent(PostStore.REDIS, postId, userId, PostChangedEvent.Type.UPDATED));
+
+        if (previousImageUrl != null) {
+            releaseImage(previousImageUrl);
+        }
         log.info("Post with ID {} updated in Redis.", postId);
     }
 
-    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ELASTICSEARCH_POSTS_CACHE, key = "#postId")
     public void updatePostInElasticsearch(String postId, String text, MultipartFile imageFile) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
@@ -290,12 +448,14 @@ public class PostService {
             throw new AccessDeniedException("Access denied to update the post with ID " + postId);
         }
 
-        String imageUrl = updateImageInMinio(imageFile, postElasticsearch.getImageUrl());
+        String previousImageUrl = stagedImageService.withStagedImage(imageFile, imageUrl ->
+            replaceContent(PostStore.ELASTICSEARCH, postElasticsearch, () -> postElasticsearchRepository.findById(postId),
+                current -> postElasticsearchRepository.updateContent(postId, current.getVersion(), text, imageUrl) == 1));
+        eventPublisher.publishEvent(new PostChangedEvent(PostStore.ELASTICSEARCH, postId, userId, PostChangedEvent.Type.UPDATED));
 
-        postElasticsearch.setText(text);
-        postElasticsearch.setImageUrl(imageUrl);
-
-        postElasticsearchRepository.save(postElasticsearch);
+        if (previousImageUrl != null) {
+            releaseImage(previousImageUrl);
+        }
         log.info("Post with ID {} updated in Elasticsearch.", postId);
     }
 
@@ -303,6 +463,7 @@ public class PostService {
 
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.POSTGRES_POSTS_CACHE, key = "#postId")
     public void deletePostFromPostgresById(String postId) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
@@ -316,12 +477,15 @@ public class PostService {
             throw new AccessDeniedException("Access denied to delete the post with ID " + postId);
         }
 
-        deleteImageFromMinio(postPostgres.getImageUrl());
         postPostgresRepository.delete(postPostgres);
+        if (postPostgres.getImageUrl() != null) {
+            outboxService.enqueue(OutboxService.IMAGE_DELETED, new ImageDeletedEvent(BUCKET_NAME, getObjectNameByImageUrl(postPostgres.getImageUrl())));
+        }
+        outboxService.enqueue(OutboxService.POST_CHANGED, new PostChangedEvent(PostStore.POSTGRES, postId, userId, PostChangedEvent.Type.DELETED));
         log.info("Post with ID {} deleted from PostgreSQL.", postId);
     }
 
-    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.MONGODB_POSTS_CACHE, key = "#postId")
     public void deletePostFromMongodbById(String postId) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
@@ -335,12 +499,13 @@ public class PostService {
             throw new AccessDeniedException("Access denied to delete the post with ID " + postId);
         }
 
-        deleteImageFromMinio(postMongodb.getImageUrl());
         postMongodbRepository.delete(postMongodb);
+        releaseImage(postMongodb.getImageUrl());
+        eventPublisher.publishEvent(new PostChangedEvent(PostStore.MONGODB, postId, userId, PostChangedEvent.Type.DELETED));
         log.info("Post with ID {} deleted from MongoDB.", postId);
     }
 
-    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.REDIS_POSTS_CACHE, key = "#postId")
     public void deletePostFromRedisById(String postId) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
@@ -354,12 +519,13 @@ public class PostService {
             throw new AccessDeniedException("Access denied to delete the post with ID " + postId);
         }
 
-        deleteImageFromMinio(postRedis.getImageUrl());
         postRedisRepository.deleteById(postRedis.getId());
+        releaseImage(postRedis.getImageUrl());
+        eventPublisher.publishEvent(new PostChangedEvent(PostStore.REDIS, postId, userId, PostChangedEvent.Type.DELETED));
         log.info("Post with ID {} deleted from Redis.", postId);
     }
 
-    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ELASTICSEARCH_POSTS_CACHE, key = "#postId")
     public void deletePostFromElasticsearchById(String postId) {
         IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = principal.getUserId();
@@ -373,44 +539,187 @@ public class PostService {
             throw new AccessDeniedException("Access denied to delete the post with ID " + postId);
         }
 
-        deleteImageFromMinio(postElasticsearch.getImageUrl());
         postElasticsearchRepository.delete(postElasticsearch);
+        releaseImage(postElasticsearch.getImageUrl());
+        eventPublisher.publishEvent(new PostChangedEvent(PostStore.ELASTICSEARCH, postId, userId, PostChangedEvent.Type.DELETED));
         log.info("Post with ID {} deleted from Elasticsearch.", postId);
     }
 
 
 
 
-    private String uploadImageToMinio(MultipartFile imageFile) {
+    private PostPostgres insertPostToPostgres(String userId, String text, String imageUrl) {
+        return transactionTemplate.execute(status -> {
+            PostPostgres postPostgres = PostPostgres.builder()
+                    .userId(userId)
+                    .text(text)
+                    .imageUrl(imageUrl)
+                    .build();
+            postPostgresRepository.save(postPostgres);
+            outboxService.enqueue(OutboxService.POST_CHANGED, new PostChangedEvent(PostStore.POSTGRES, postPostgres.getId(), userId, PostChangedEvent.Type.CREATED));
+            return postPostgres;
+        });
+    }
+
+    private PostMongodb insertPostToMongodb(String userId, String text, String imageUrl) {
+        PostMongodb postMongodb = PostMongodb.builder()
+                .userId(userId)
+                .text(text)
+                .imageUrl(imageUrl)
+                .build();
+        postMongodbRepository.save(postMongodb);
+        eventPublisher.publishEvent(new PostChangedEvent(PostStore.MONGODB, postMongodb.getId(), userId, PostChangedEvent.Type.CREATED));
+        return postMongodb;
+    }
+
+    private PostRedis insertPostToRedis(String userId, String text, String imageUrl) {
+        PostRedis postRedis = PostRedis.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .text(text)
+                .imageUrl(imageUrl)
+                .build();
+        postRedisRepository.save(postRedis);
+        eventPublisher.publishEvent(new PostChangedEvent(PostStore.REDIS, postRedis.getId(), userId, PostChangedEvent.Type.CREATED));
+        return postRedis;
+    }
+
+    private PostElasticsearch insertPostToElasticsearch(String userId, String text, String imageUrl) {
+        PostElasticsearch postElasticsearch = PostElasticsearch.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .text(text)
+                .imageUrl(imageUrl)
+                .build();
+        postElasticsearchRepository.save(postElasticsearch);
+        eventPublisher.publishEvent(new PostChangedEvent(PostStore.ELASTICSEARCH, postElasticsearch.getId(), userId, PostChangedEvent.Type.CREATED));
+        return postElasticsearch;
+    }
+
+    private PostPostgres checkPostgresPostOwner(String postId, String userId, String action) {
+        PostPostgres postPostgres = postPostgresRepository.findById(postId).orElse(null);
+
+        if (postPostgres == null) {
+            throw new ResourceNotFoundException("Post not found in PostgreSQL with ID: " + postId);
+        }
+
+        if (!postPostgres.getUserId().equals(userId)) {
+            throw new AccessDeniedException("Access denied to " + action + " the post with ID " + postId);
+        }
+
+        return postPostgres;
+    }
+
+    private void releaseImage(String imageUrl) {
+        if (imageUrl == null) {
+            return;
+        }
+
         try {
-            InputStream inputStream = imageFile.getInputStream();
-            long contentLength = imageFile.getSize();
-            String objectName = UUID.randomUUID().toString();
+            stagedImageService.release(imageUrl);
+        } catch (Exception e) {
+            log.error("Failed to release image {}: {}", imageUrl, e.getMessage(), e);
+        }
+    }
+
+    private CompletableFuture<List<? extends Post>> fetchFromStore(PostStore store, Supplier<List<? extends Post>> query) {
+        Duration timeout = feedExecutors.timeoutFor(store);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<List<? extends Post>> future;
 
-            return minioService.uploadImageToMinio(BUCKET_NAME, objectName, inputStream, contentLength);
-        } catch (IOException e) {
-            log.error("Failed to upload image to MinIO: {}", e.getMessage());
-            throw new RuntimeException("Failed to upload image to MinIO", e);
+        try {
+            future = CompletableFuture.supplyAsync(query, feedExecutors.executorFor(store));
+        } catch (RejectedExecutionException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future
+            .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((posts, e) -> recordFanOut(sample, store.name().toLowerCase(), e))
+            .exceptionally(e -> {
+                log.warn("Posts from {} are left out of the feed: {}", store.getDatabase(), e.toString());
+                return null;
+            });
+    }
+
+    private void recordFanOut(Timer.Sample sample, String store, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        String outcome = cause == null ? "success"
+                : cause instanceof TimeoutException ? "timeout"
+                : cause instanceof RejectedExecutionException ? "rejected"
+                : "error";
+
+        sample.stop(Timer.builder("posts.feed.fanout")
+            .description("Time until each store's part of the feed completed, timed out or failed")
+            .tag("store", store)
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+    }
+
+    private int normalizeLimit(int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be positive");
         }
+
+        return Math.min(limit, MAX_PAGE_LIMIT);
+    }
+
+    private <T extends Post> CursorPage<T> toPage(List<T> posts, int pageSize) {
+        String nextCursor = posts.size() < pageSize ? null : posts.get(posts.size() - 1).getId();
+        return new CursorPage<>(posts, encodeCursor(nextCursor));
     }
 
-    private String updateImageInMinio(MultipartFile imageFile, String imageUrl) {
+    private List<Object> decodeSearchAfter(String cursor) {
+        String position = decodeCursor(cursor);
+        if (position == null) {
+            return null;
+        }
+
+        int separator = position.indexOf('|');
         try {
-            InputStream inputStream = imageFile.getInputStream();
-            long contentLength = imageFile.getSize();
-            String objectName = getObjectNameByImageUrl(imageUrl);
+            return List.of(Double.parseDouble(position.substring(0, separator)), position.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
 
-            return minioService.updateImageInMinio(BUCKET_NAME, objectName, inputStream, contentLength);
-        } catch (IOException e) {
-            log.error("Failed to update image to MinIO: {}", e.getMessage());
-            throw new RuntimeException("Failed to update image to MinIO", e);
+    private String encodeCursor(String position) {
+        if (position == null) {
+            return null;
         }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
     }
 
-    private void deleteImageFromMinio(String imageUrl) {
-        String objectName = getObjectNameByImageUrl(imageUrl);
+    // Each write only succeeds against the version it was based on, so concurrent updates never share a
+    // version and ETag, and every update releases the image it actually replaced.
+    private <P extends Post> String replaceContent(PostStore store, P post, Supplier<Optional<P>> reload, VersionedWrite<P> write) {
+        P current = post;
+
+        for (int attempt = 1; ; attempt++) {
+            String previousImageUrl = current.getImageUrl();
+            if (write.write(current)) {
+                return previousImageUrl;
+            }
+            if (attempt == UPDATE_ATTEMPTS) {
+                throw new ConflictException("Post with ID " + post.getId() + " was changed concurrently, retry the update");
+            }
+
+            current = reload.get()
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found in " + store.getDatabase() + " with ID: " + post.getId()));
+        }
+    }
 
-        minioService.deleteFile(BUCKET_NAME, objectName);
+    private String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
     }
 
     private String getObjectNameByImageUrl(String imageUrl) {
@@ -419,4 +728,8 @@ public class PostService {
 
         return objectName;
     }
+
+    private interface VersionedWrite<P> {
+        boolean write(P post);
+    }
 }
@@ -0,0 +1,169 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.example.demo.dto.PendingUpload;
+import com.example.demo.dto.PresignedUpload;
+import com.example.demo.entities.PostStore;
+import com.example.demo.exception.exceptions.AccessDeniedException;
+import com.example.demo.exception.exceptions.BadRequestException;
+import com.example.demo.exception.exceptions.ResourceNotFoundException;
+import com.example.demo.security.IUserProfile;
+import com.example.demo.utils.ImageTypes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PresignedUploadService {
+
+    @Value("${minio.bucket}")
+    private String BUCKET_NAME;
+
+    @Value("${minio.presigned.expiry:15m}")
+    private Duration UPLOAD_EXPIRY;
+
+    @Value("${minio.presigned.confirm-window:30m}")
+    private Duration CONFIRM_WINDOW;
+
+    @Value("${minio.presigned.max-size:10MB}")
+    private DataSize MAX_SIZE;
+
+    final private MinioService minioService;
+    final private StagedImageService stagedImageService;
+    final private PostService postService;
+    final private StringRedisTemplate stringRedisTemplate;
+    final private ObjectMapper objectMapper;
+
+    public PresignedUpload createUpload(String contentType, long size) {
+        if (!ImageTypes.SUPPORTED.contains(contentType)) {
+            throw new BadRequestException("Unsupported image type: " + contentType);
+        }
+
+        if (size > MAX_SIZE.toBytes()) {
+            throw new BadRequestException("Image must not be larger than " + MAX_SIZE.toMegabytes() + " MB");
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        String objectName = stagedImageService.reserve();
+
+        try {
+            String uploadUrl = minioService.presignUpload(BUCKET_NAME, objectName, UPLOAD_EXPIRY);
+            PendingUpload pendingUpload = new PendingUpload(currentUserId(), objectName, contentType, size);
+
+            stringRedisTemplate.opsForValue().set(pendingKey(uploadId), objectMapper.writeValueAsString(pendingUpload), CONFIRM_WINDOW);
+
+            return new PresignedUpload(uploadId, uploadUrl, "PUT", Map.of("Content-Type", contentType), Instant.now().plus(UPLOAD_EXPIRY));
+        } catch (Exception e) {
+            log.error("Failed to create presigned upload: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to create presigned upload", e);
+        }
+    }
+
+    public String confirmUpload(PostStore store, String uploadId, String text) {
+        String userId = currentUserId();
+        PendingUpload pendingUpload = read(stringRedisTemplate.opsForValue().get(pendingKey(uploadId)), uploadId);
+
+        if (!pendingUpload.getUserId().equals(userId)) {
+            throw new AccessDeniedException("Access denied to confirm the upload with ID " + uploadId);
+        }
+
+        // The upload stays pending until it has been verified, so the client can retry after a MinIO
+        // failure or upload again to the same URL after a rejection. Unconfirmed objects are swept.
+        StatObjectResponse stat = verify(pendingUpload);
+        String imageUrl = minio(() -> stagedImageService.stageUploaded(pendingUpload.getObjectName(), stat.etag(), pendingUpload.getContentType()));
+        read(stringRedisTemplate.opsForValue().getAndDelete(pendingKey(uploadId)), uploadId);
+
+        try {
+            stagedImageService.discard(minioService.getImageUrl(BUCKET_NAME, pendingUpload.getObjectName()));
+        } catch (Exception e) {
+            log.warn("Failed to remove the reserved upload object {}, leaving it to the reconciler: {}", pendingUpload.getObjectName(), e.getMessage());
+        }
+
+        return stagedImageService.writeStaged(imageUrl, url -> postService.savePostWithUploadedImage(store, userId, text, url));
+    }
+
+    private StatObjectResponse verify(PendingUpload pendingUpload) {
+        StatObjectResponse stat = minio(() -> minioService.statObject(BUCKET_NAME, pendingUpload.getObjectName()))
+            .orElseThrow(() -> new BadRequestException("Image has not been uploaded"));
+
+        if (stat.size() != pendingUpload.getSize()) {
+            throw new BadRequestException("Uploaded image has " + stat.size() + " bytes, expected " + pendingUpload.getSize());
+        }
+
+        if (stat.size() < ImageTypes.SIGNATURE_LENGTH) {
+            throw new BadRequestException("Uploaded file is too small to be an image");
+        }
+
+        if (!pendingUpload.getContentType().equals(stat.contentType())) {
+            throw new BadRequestException("Uploaded image has content type " + stat.contentType() + ", expected " + pendingUpload.getContentType());
+        }
+
+        byte[] head = minio(() -> minioService.readObjectHead(BUCKET_NAME, pendingUpload.getObjectName(), ImageTypes.SIGNATURE_LENGTH));
+
+        if (head.length < ImageTypes.SIGNATURE_LENGTH || !pendingUpload.getContentType().equals(ImageTypes.detect(head))) {
+            throw new BadRequestException("Uploaded file is not a " + pendingUpload.getContentType() + " image");
+        }
+
+        return stat;
+    }
+
+    // The object can be replaced or removed through the presigned URL between two requests.
+    private <T> T minio(MinioCall<T> call) {
+        try {
+            return call.call();
+        } catch (ErrorResponseException e) {
+            String code = e.errorResponse().code();
+            if ("NoSuchKey".equals(code) || "InvalidRange".equals(code)) {
+                throw new BadRequestException("Uploaded image is missing or incomplete");
+            }
+            if ("PreconditionFailed".equals(code)) {
+                throw new BadRequestException("Uploaded image was replaced while it was being confirmed");
+            }
+            throw new RuntimeException("Failed to verify uploaded image", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to verify uploaded image", e);
+        }
+    }
+
+    private PendingUpload read(String value, String uploadId) {
+        if (value == null) {
+            throw new ResourceNotFoundException("Upload not found or expired with ID: " + uploadId);
+        }
+
+        try {
+            return objectMapper.readValue(value, PendingUpload.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt pending upload " + uploadId, e);
+        }
+    }
+
+    private String currentUserId() {
+        IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return principal.getUserId();
+    }
+
+    private String pendingKey(String uploadId) {
+        return "upload:{" + uploadId + "}";
+    }
+
+    private interface MinioCall<T> {
+
+        T call() throws Exception;
+    }
+}
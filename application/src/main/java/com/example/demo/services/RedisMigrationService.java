@@ -0,0 +1,59 @@
+package com.example.demo.services;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.entities.PostRedis;
+import com.example.demo.repositories.PostRedisRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RedisMigrationService {
+
+    private static final String LEGACY_POSTS_KEY = "posts";
+    private static final String LEGACY_USER_POSTS_KEY_PATTERN = "posts:user:*";
+    private static final String LEGACY_POST_IDS_KEY = "posts:ids";
+    private static final String LEGACY_POST_IDS_INDEXED_KEY = "posts:ids:indexed";
+    private static final int MIGRATION_BATCH_SIZE = 500;
+
+    final private RedisTemplate<String, PostRedis> redisTemplate;
+    final private PostRedisRepository postRedisRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyPostsHash() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(LEGACY_POSTS_KEY))) {
+            long migrated = 0;
+            ScanOptions scanOptions = ScanOptions.scanOptions().count(MIGRATION_BATCH_SIZE).build();
+
+            try (Cursor<Map.Entry<Object, Object>> entries = redisTemplate.opsForHash().scan(LEGACY_POSTS_KEY, scanOptions)) {
+                while (entries.hasNext()) {
+                    Map.Entry<Object, Object> entry = entries.next();
+                    postRedisRepository.save((PostRedis) entry.getValue());
+                    redisTemplate.opsForHash().delete(LEGACY_POSTS_KEY, entry.getKey());
+                    migrated++;
+                }
+            }
+
+            log.info("Migrated {} posts from the legacy Redis hash '{}'.", migrated, LEGACY_POSTS_KEY);
+        }
+
+        // Drops the global id index older versions paged over.
+        redisTemplate.unlink(List.of(LEGACY_POST_IDS_KEY, LEGACY_POST_IDS_INDEXED_KEY));
+
+        ScanOptions legacyIndexScan = ScanOptions.scanOptions().match(LEGACY_USER_POSTS_KEY_PATTERN).count(MIGRATION_BATCH_SIZE).build();
+        try (Cursor<String> keys = redisTemplate.scan(legacyIndexScan)) {
+            keys.forEachRemaining(redisTemplate::unlink);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+@Service
+public class RequestCoalescer {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> coalesceAsync(String key, Supplier<CompletableFuture<T>> call) {
+        String scopedKey = scopedKey(key);
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(scopedKey, leader);
+
+        if (existing != null) {
+            return (CompletableFuture<T>) existing.copy();
+        }
+
+        try {
+            call.get().whenComplete((result, e) -> complete(scopedKey, leader, result, e));
+        } catch (Throwable e) {
+            // Anything thrown here must still release the key, or every later caller would wait forever.
+            complete(scopedKey, leader, null, e);
+        }
+
+        return (CompletableFuture<T>) leader.copy();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(String key, Supplier<T> call) {
+        String scopedKey = scopedKey(key);
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(scopedKey, leader);
+
+        if (existing != null) {
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            T result = call.get();
+            complete(scopedKey, leader, result, null);
+            return result;
+        } catch (Throwable e) {
+            complete(scopedKey, leader, null, e);
+            throw e;
+        }
+    }
+
+    private void complete(String scopedKey, CompletableFuture<Object> leader, Object result, Throwable e) {
+        inFlight.remove(scopedKey, leader);
+
+        if (e != null) {
+            leader.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+        } else {
+            leader.complete(result);
+        }
+    }
+
+    // Results depend on what the caller may see, not on who the caller is, so viewers with the
+    // same authorities share one call.
+    private String scopedKey(String key) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return "anonymous|" + key;
+        }
+
+        String authorities = authentication.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .sorted()
+            .collect(Collectors.joining(","));
+
+        return authorities + "|" + key;
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.demo.exception.exceptions.AccessDeniedException;
+import com.example.demo.exception.exceptions.BadRequestException;
+import com.example.demo.exception.exceptions.ConflictException;
+import com.example.demo.exception.exceptions.ResourceNotFoundException;
+import com.example.demo.utils.ImageTypes;
+import com.example.demo.utils.ImageVariants;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StagedImageService {
+
+    // Objects are named by the SHA-256 of their content and every post holding an image owns one
+    // reference in REFS_KEY. Unreferenced objects wait in STAGED_KEY for the grace period.
+    private static final String STAGED_KEY = "minio:staged";
+    private static final String REFS_KEY = "minio:refs";
+    // Objects claimed by the sweep whose removal from MinIO has not finished yet, scored by claim time.
+    private static final String REMOVING_KEY = "minio:removing";
+    private static final String ORPHAN_SUSPECTS_KEY = "minio:orphan-suspects";
+    private static final String NEXT_ORPHAN_SUSPECTS_KEY = "minio:orphan-suspects:next";
+    private static final String RELEASED_KEY_PREFIX = "minio:released:";
+    // Longer than an outbox event keeps being retried, so a redelivery always finds its marker.
+    private static final Duration RELEASED_TTL = Duration.ofDays(7);
+    private static final int SWEEP_BATCH_SIZE = 1000;
+
+    private static final RedisScript<Long> TRACK_SCRIPT = RedisScript.of("""
+        redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2])
+        if redis.call('ZSCORE', KEYS[2], ARGV[2]) then
+            return 1
+        end
+        return 0
+        """, Long.class);
+
+    private static final RedisScript<Long> RETAIN_SCRIPT = RedisScript.of("""
+        for i = 1, #ARGV do
+            redis.call('HINCRBY', KEYS[1], ARGV[i], 1)
+            redis.call('ZREM', KEYS[2], ARGV[i])
+        end
+        return #ARGV
+        """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+        local unreferenced = 0
+        for i = 2, #ARGV do
+            if redis.call('HINCRBY', KEYS[1], ARGV[i], -1) <= 0 then
+                redis.call('HDEL', KEYS[1], ARGV[i])
+                redis.call('ZADD', KEYS[2], ARGV[1], ARGV[i])
+                unreferenced = unreferenced + 1
+            end
+        end
+        return unreferenced
+        """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_ONCE_SCRIPT = RedisScript.of("""
+        if not redis.call('SET', KEYS[3], '1', 'NX', 'PX', ARGV[2]) then
+            return -1
+        end
+        if redis.call('HINCRBY', KEYS[1], ARGV[3], -1) <= 0 then
+            redis.call('HDEL', KEYS[1], ARGV[3])
+            redis.call('ZADD', KEYS[2], ARGV[1], ARGV[3])
+            return 1
+        end
+        return 0
+        """, Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_UNREFERENCED_SCRIPT = RedisScript.of("""
+        local claimed = {}
+        for i = 2, #ARGV - 1 do
+            local staged = redis.call('ZSCORE', KEYS[2], ARGV[i])
+            if staged and tonumber(staged) <= tonumber(ARGV[1]) then
+                redis.call('ZREM', KEYS[2], ARGV[i])
+                if redis.call('HEXISTS', KEYS[1], ARGV[i]) == 0 then
+                    redis.call('ZADD', KEYS[3], ARGV[#ARGV], ARGV[i])
+                    table.insert(claimed, ARGV[i])
+                end
+            end
+        end
+        return claimed
+        """, List.class);
+
+    // A counted object that no post references is either leaked or about to be written, so it is only
+    // claimed when the previous reconciliation already found it unreferenced.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_ORPHANS_SCRIPT = RedisScript.of("""
+        local claimed = {}
+        for i = 3, #ARGV do
+            if not redis.call('ZSCORE', KEYS[2], ARGV[i]) then
+                if redis.call('HEXISTS', KEYS[1], ARGV[i]) == 0 then
+                    table.insert(claimed, ARGV[i])
+                elseif redis.call('SISMEMBER', KEYS[3], ARGV[i]) == 1 then
+                    if ARGV[1] == '0' then
+                        redis.call('HDEL', KEYS[1], ARGV[i])
+                    end
+                    table.insert(claimed, ARGV[i])
+                elseif ARGV[1] == '0' then
+                    redis.call('SADD', KEYS[4], ARGV[i])
+                end
+            end
+        end
+        if ARGV[1] == '0' then
+            for _, name in ipairs(claimed) do
+                redis.call('ZADD', KEYS[5], ARGV[2], name)
+            end
+        end
+        return claimed
+        """, List.class);
+
+    @Value("${minio.bucket}")
+    private String BUCKET_NAME;
+
+    @Value("${minio.staging.grace-period:1h}")
+    private Duration GRACE_PERIOD;
+
+    final private MinioService minioService;
+    final private StringRedisTemplate stringRedisTemplate;
+
+    public <T> T withStagedImage(MultipartFile imageFile, Function<String, T> write) {
+        return writeStaged(stage(imageFile), write);
+    }
+
+    public <T> T writeStaged(String imageUrl, Function<String, T> write) {
+        // The reference is taken before the write: a crash in between leaks an object,
+        // the other order could let a concurrent release delete an image a post points to.
+        retainAll(List.of(imageUrl));
+
+        try {
+            return write.apply(imageUrl);
+        } catch (RuntimeException e) {
+            releaseAfterFailedWrite(List.of(imageUrl), e);
+            throw e;
+        }
+    }
+
+    // A store can fail after it has persisted the post, a write that timed out but went through or a
+    // commit whose acknowledgement was lost, and releasing then would let the sweep delete an image
+    // the post points to. Only a request rejected before anything was written gives its reference
+    // back, any other failure keeps it until the orphan reconciler finds no post using the image.
+    public void releaseAfterFailedWrite(List<String> imageUrls, RuntimeException failure) {
+        if (failure instanceof BadRequestException
+                || failure instanceof ConflictException
+                || failure instanceof ResourceNotFoundException
+                || failure instanceof AccessDeniedException) {
+            releaseAll(imageUrls);
+        } else {
+            log.warn("Keeping the references of {} images after a failed write, the write may have been persisted: {}",
+                imageUrls.size(), failure.toString());
+        }
+    }
+
+    public String reserve() {
+        String objectName = UUID.randomUUID().toString();
+        track(objectName);
+        return objectName;
+    }
+
+    public String stage(MultipartFile imageFile) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String contentType;
+
+            try (InputStream inputStream = new DigestInputStream(imageFile.getInputStream(), digest)) {
+                contentType = detectContentType(imageFile, inputStream.readNBytes(ImageTypes.SIGNATURE_LENGTH));
+                inputStream.transferTo(OutputStream.nullOutputStream());
+            }
+
+            return storeContent(HexFormat.of().formatHex(digest.digest()), objectName -> {
+                try (InputStream inputStream = imageFile.getInputStream()) {
+                    String imageUrl = minioService.uploadImageToMinio(BUCKET_NAME, objectName, inputStream, imageFile.getSize(), contentType);
+
+                    if (imageUrl == null) {
+                        throw new RuntimeException("Failed to upload image to MinIO");
+                    }
+
+                    return imageUrl;
+                }
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.error("Failed to upload image to MinIO: {}", e.getMessage());
+            throw new RuntimeException("Failed to upload image to MinIO", e);
+        } catch (Exception e) {
+            log.error("Failed to check image in MinIO: {}", e.getMessage());
+            throw new RuntimeException("Failed to upload image to MinIO", e);
+        }
+    }
+
+    // Copies a verified direct upload to a name of its own inside MinIO. The presigned URL stays valid until it
+    // expires, so the reserved name must not be what a post points to. Direct uploads skip content dedup, since
+    // hashing them would stream every object through the service.
+    public String stageUploaded(String objectName, String etag, String contentType) throws Exception {
+        return minioService.copyObject(BUCKET_NAME, objectName, etag, reserve(), contentType);
+    }
+
+    public void retainAll(List<String> imageUrls) {
+        if (imageUrls.isEmpty()) {
+            return;
+        }
+
+        stringRedisTemplate.execute(RETAIN_SCRIPT, List.of(REFS_KEY, STAGED_KEY),
+            imageUrls.stream().map(this::objectName).toArray());
+    }
+
+    public void release(String imageUrl) {
+        releaseAll(List.of(imageUrl));
+    }
+
+    public void releaseAll(List<String> imageUrls) {
+        if (imageUrls.isEmpty()) {
+            return;
+        }
+
+        Object[] args = Stream.concat(
+                Stream.of(String.valueOf(System.currentTimeMillis())),
+                imageUrls.stream().map(this::objectName))
+            .toArray();
+
+        Long unreferenced = stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(REFS_KEY, STAGED_KEY), args);
+        log.debug("Released {} image references, {} images are no longer referenced", imageUrls.size(), unreferenced);
+    }
+
+    // For at-least-once callers: a release with an id that was already applied is ignored.
+    public void releaseOnce(String releaseId, String imageUrl) {
+        Long result = stringRedisTemplate.execute(RELEASE_ONCE_SCRIPT,
+            List.of(REFS_KEY, STAGED_KEY, RELEASED_KEY_PREFIX + releaseId),
+            String.valueOf(System.currentTimeMillis()), String.valueOf(RELEASED_TTL.toMillis()), objectName(imageUrl));
+
+        if (result != null && result == -1) {
+            log.debug("Image reference {} was already released by {}, ignoring the redelivery", imageUrl, releaseId);
+        }
+    }
+
+    public void discard(String imageUrl) {
+        // Only for objects under reserved names, content-addressed images are left to the sweep
+        // because another upload of the same content may be about to reference them.
+        removeUnreferenced(List.of(objectName(imageUrl)), Long.MAX_VALUE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> claimOrphans(List<String> objectNames, boolean dryRun) {
+        if (objectNames.isEmpty()) {
+            return List.of();
+        }
+
+        Object[] args = Stream.concat(Stream.of(dryRun ? "1" : "0", String.valueOf(System.currentTimeMillis())), objectNames.stream()).toArray();
+        List<String> claimed = stringRedisTemplate.execute(CLAIM_ORPHANS_SCRIPT,
+            List.of(REFS_KEY, STAGED_KEY, ORPHAN_SUSPECTS_KEY, NEXT_ORPHAN_SUSPECTS_KEY, REMOVING_KEY), args);
+        return claimed == null ? List.of() : claimed;
+    }
+
+    // Claimed orphans stay marked as being removed until this runs, so uploads of the same content meanwhile get names of their own.
+    public void finishOrphanRemoval(List<String> objectNames) {
+        if (!objectNames.isEmpty()) {
+            stringRedisTemplate.opsForZSet().remove(REMOVING_KEY, objectNames.toArray());
+        }
+    }
+
+    public void finishOrphanClaims(boolean completed) {
+        if (completed && Boolean.TRUE.equals(stringRedisTemplate.hasKey(NEXT_ORPHAN_SUSPECTS_KEY))) {
+            stringRedisTemplate.rename(NEXT_ORPHAN_SUSPECTS_KEY, ORPHAN_SUSPECTS_KEY);
+        } else if (completed) {
+            stringRedisTemplate.delete(ORPHAN_SUSPECTS_KEY);
+        } else {
+            stringRedisTemplate.delete(NEXT_ORPHAN_SUSPECTS_KEY);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${minio.staging.sweep-interval:5m}")
+    public void sweep() {
+        long staleBefore = System.currentTimeMillis() - GRACE_PERIOD.toMillis();
+
+        try {
+            // Left behind by an instance that died while removing them.
+            stringRedisTemplate.opsForZSet().removeRangeByScore(REMOVING_KEY, 0, staleBefore);
+
+            Set<String> stale;
+            do {
+                stale = stringRedisTemplate.opsForZSet().rangeByScore(STAGED_KEY, 0, staleBefore, 0, SWEEP_BATCH_SIZE);
+                if (stale == null || stale.isEmpty()) {
+                    return;
+                }
+
+                if (!removeUnreferenced(new ArrayList<>(stale), staleBefore)) {
+                    log.warn("Failed to remove some unreferenced images, retrying on the next sweep");
+                    return;
+                }
+            } while (stale.size() == SWEEP_BATCH_SIZE);
+        } catch (Exception e) {
+            log.error("Failed to sweep unreferenced images: {}", e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean removeUnreferenced(List<String> objectNames, long staleBefore) {
+        Object[] args = Stream.of(
+                Stream.of(String.valueOf(staleBefore)),
+                objectNames.stream(),
+                Stream.of(String.valueOf(System.currentTimeMillis())))
+            .flatMap(Function.identity())
+            .toArray();
+        List<String> claimed = stringRedisTemplate.execute(CLAIM_UNREFERENCED_SCRIPT, List.of(REFS_KEY, STAGED_KEY, REMOVING_KEY), args);
+        if (claimed == null || claimed.isEmpty()) {
+            return true;
+        }
+
+        List<String> withVariants = claimed.stream()
+            .flatMap(objectName -> ImageVariants.withVariants(objectName).stream())
+            .toList();
+
+        try {
+            if (minioService.removeObjects(BUCKET_NAME, withVariants) > 0) {
+                // An upload of the same content may have staged the object again meanwhile, its score wins.
+                claimed.forEach(objectName -> stringRedisTemplate.opsForZSet().addIfAbsent(STAGED_KEY, objectName, 0));
+                return false;
+            }
+        } finally {
+            stringRedisTemplate.opsForZSet().remove(REMOVING_KEY, claimed.toArray());
+        }
+
+        log.info("Removed {} unreferenced images from MinIO", claimed.size());
+        return true;
+    }
+
+    private String storeContent(String contentHash, ContentWriter writer) throws Exception {
+        String objectName = contentHash;
+
+        if (track(objectName)) {
+            // The sweep is removing an earlier copy of this content and may delete it after this
+            // write, so the write gets a name of its own instead.
+            objectName = objectName + "-" + UUID.randomUUID();
+            track(objectName);
+        } else if (minioService.statObject(BUCKET_NAME, objectName).isPresent()) {
+            log.debug("Image {} is already stored, skipping the upload", objectName);
+            return minioService.getImageUrl(BUCKET_NAME, objectName);
+        }
+
+        return writer.write(objectName);
+    }
+
+    private String detectContentType(MultipartFile imageFile, byte[] head) {
+        String contentType = ImageTypes.detect(head);
+
+        if (contentType != null) {
+            return contentType;
+        }
+        return imageFile.getContentType() != null ? imageFile.getContentType() : "application/octet-stream";
+    }
+
+    // Returns whether the sweep is removing the object, a fresh score keeps it from being claimed again.
+    private boolean track(String objectName) {
+        try {
+            Long removing = stringRedisTemplate.execute(TRACK_SCRIPT, List.of(STAGED_KEY, REMOVING_KEY),
+                String.valueOf(System.currentTimeMillis()), objectName);
+            return removing != null && removing == 1;
+        } catch (Exception e) {
+            log.warn("Failed to track staged image {}, it cannot be cleaned up automatically if the write fails: {}", objectName, e.getMessage());
+            return true;
+        }
+    }
+
+    private String objectName(String imageUrl) {
+        return imageUrl.substring(imageUrl.lastIndexOf('/') + 1);
+    }
+
+    private interface ContentWriter {
+
+        String write(String objectName) throws Exception;
+    }
+}
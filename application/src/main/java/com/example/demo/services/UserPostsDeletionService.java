@@ -0,0 +1,200 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.configs.CacheConfig;
+import com.example.demo.dto.DeletionProgress;
+import com.example.demo.entities.Post;
+import com.example.demo.entities.PostImageRef;
+import com.example.demo.entities.PostStore;
+import com.example.demo.events.PostChangedEvent;
+import com.example.demo.exception.exceptions.AccessDeniedException;
+import com.example.demo.exception.exceptions.ResourceNotFoundException;
+import com.example.demo.repositories.PostElasticsearchRepository;
+import com.example.demo.repositories.PostMongodbRepository;
+import com.example.demo.repositories.PostPostgresRepository;
+import com.example.demo.repositories.PostReadModelRepository;
+import com.example.demo.repositories.PostRedisRepository;
+import com.example.demo.security.IUserProfile;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserPostsDeletionService {
+
+    private static final SimpleGrantedAuthority ADMIN_AUTHORITY = new SimpleGrantedAuthority("ROLE_ADMIN");
+
+    @Value("${posts.mass-delete.concurrency:2}")
+    private int CONCURRENCY;
+
+    @Value("${posts.mass-delete.progress-ttl:1h}")
+    private Duration PROGRESS_TTL;
+
+    final private PostPostgresRepository postPostgresRepository;
+    final private PostMongodbRepository postMongodbRepository;
+    final private PostRedisRepository postRedisRepository;
+    final private PostElasticsearchRepository postElasticsearchRepository;
+    final private PostReadModelRepository postReadModelRepository;
+    final private StagedImageService stagedImageService;
+    final private OutboxService outboxService;
+    final private FeedCacheService feedCacheService;
+    final private CacheManager cacheManager;
+    final private TransactionTemplate transactionTemplate;
+
+    private Cache<String, DeletionProgress> jobs;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        jobs = Caffeine.newBuilder()
+            .expireAfterWrite(PROGRESS_TTL)
+            .build();
+        executor = Executors.newFixedThreadPool(CONCURRENCY, new CustomizableThreadFactory("mass-delete-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public DeletionProgress deleteAllPostsOfUser(String userId) {
+        checkAccess(userId);
+
+        DeletionProgress progress = new DeletionProgress(UUID.randomUUID().toString(), userId);
+        jobs.put(progress.getJobId(), progress);
+
+        try {
+            executor.execute(() -> run(progress));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(progress.getJobId());
+            throw e;
+        }
+
+        return progress;
+    }
+
+    public DeletionProgress getProgress(String jobId) {
+        DeletionProgress progress = jobs.getIfPresent(jobId);
+
+        if (progress == null) {
+            throw new ResourceNotFoundException("Deletion job not found with ID: " + jobId);
+        }
+
+        checkAccess(progress.getUserId());
+        return progress;
+    }
+
+    private void run(DeletionProgress progress) {
+        String userId = progress.getUserId();
+        progress.setStatus(DeletionProgress.Status.RUNNING);
+
+        try {
+            // The image references come from the deleted rows themselves, so a post whose image changes
+            // while the job runs releases the image it actually had.
+            deleteFromStore(progress, PostStore.POSTGRES, CacheConfig.POSTGRES_POSTS_CACHE, () ->
+                imageUrlsById(transactionTemplate.execute(status -> deletePostgresPosts(userId)),
+                    PostImageRef::getId, PostImageRef::getImageUrl));
+            deleteFromStore(progress, PostStore.MONGODB, CacheConfig.MONGODB_POSTS_CACHE, () ->
+                imageUrlsById(postMongodbRepository.deleteAllByUserId(userId), Post::getId, Post::getImageUrl));
+            deleteFromStore(progress, PostStore.REDIS, CacheConfig.REDIS_POSTS_CACHE, () ->
+                imageUrlsById(postRedisRepository.deleteAllByUserId(userId), Post::getId, Post::getImageUrl));
+            // Deleted by the ids that were read, so a post created meanwhile is neither deleted nor leaks its image.
+            deleteFromStore(progress, PostStore.ELASTICSEARCH, CacheConfig.ELASTICSEARCH_POSTS_CACHE, () -> {
+                Map<String, String> imageUrlsById = imageUrlsById(postElasticsearchRepository.findImageRefsByUserId(userId), Post::getId, Post::getImageUrl);
+                if (!imageUrlsById.isEmpty()) {
+                    postElasticsearchRepository.deleteAllById(imageUrlsById.keySet());
+                }
+                return imageUrlsById;
+            });
+
+            postReadModelRepository.deleteAllByUserId(userId);
+            feedCacheService.invalidate(userId);
+
+            progress.setStatus(DeletionProgress.Status.COMPLETED);
+            log.info("Deleted all posts of user {}: {}", userId, progress.getDeletedPosts());
+        } catch (Exception e) {
+            progress.setError(e.getMessage());
+            progress.setStatus(DeletionProgress.Status.FAILED);
+            log.error("Failed to delete all posts of user {}", userId, e);
+        } finally {
+            progress.setCurrentDatabase(null);
+            progress.setFinishedAt(Instant.now());
+        }
+    }
+
+    private void deleteFromStore(DeletionProgress progress, PostStore store, String cacheName, StoreDeletion deletion) {
+        progress.setCurrentDatabase(store.getDatabase());
+
+        Map<String, String> imageUrlsById = deletion.delete();
+        progress.getDeletedPosts().put(store.getDatabase(), (long) imageUrlsById.size());
+
+        Optional.ofNullable(cacheManager.getCache(cacheName))
+            .ifPresent(cache -> imageUrlsById.keySet().forEach(cache::evict));
+
+        List<String> imageUrls = imageUrlsById.values().stream()
+            .filter(Objects::nonNull)
+            .toList();
+
+        try {
+            stagedImageService.releaseAll(imageUrls);
+            progress.setImageReferencesReleased(progress.getImageReferencesReleased() + imageUrls.size());
+        } catch (Exception e) {
+            log.error("Failed to release {} images of user {}: {}", imageUrls.size(), progress.getUserId(), e.getMessage(), e);
+            progress.setImageReferencesFailed(progress.getImageReferencesFailed() + imageUrls.size());
+        }
+    }
+
+    // The native delete bypasses JPA, so the outbox events the other listeners rely on are enqueued here,
+    // in the same transaction as the delete.
+    private List<PostImageRef> deletePostgresPosts(String userId) {
+        List<PostImageRef> deleted = postPostgresRepository.deleteAllByUserId(userId);
+        deleted.forEach(post -> outboxService.enqueue(OutboxService.POST_CHANGED,
+            new PostChangedEvent(PostStore.POSTGRES, post.getId(), userId, PostChangedEvent.Type.DELETED)));
+        return deleted;
+    }
+
+    private <T> Map<String, String> imageUrlsById(List<T> posts, Function<T, String> id, Function<T, String> imageUrl) {
+        Map<String, String> imageUrlsById = new HashMap<>(posts.size());
+        posts.forEach(post -> imageUrlsById.put(id.apply(post), imageUrl.apply(post)));
+        return imageUrlsById;
+    }
+
+    private void checkAccess(String userId) {
+        IUserProfile principal = (IUserProfile) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        if (!principal.getUserId().equals(userId) && !principal.getAuthorities().contains(ADMIN_AUTHORITY)) {
+            throw new AccessDeniedException("Access denied to delete the posts of user " + userId);
+        }
+    }
+
+    private interface StoreDeletion {
+
+        Map<String, String> delete();
+    }
+}
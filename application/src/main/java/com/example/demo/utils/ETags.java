@@ -0,0 +1,66 @@
+package com.example.demo.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import com.example.demo.dto.PostFeed;
+import com.example.demo.entities.Post;
+import com.example.demo.entities.PostStore;
+
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String forPost(PostStore store, String id, long version) {
+        return "\"" + store.getDatabase() + "-" + id + "-" + version + "\"";
+    }
+
+    public static String forPost(Post post) {
+        return "\"" + post.getDatabase() + "-" + post.getId() + "-" + post.getVersion() + "\"";
+    }
+
+    public static String forFeed(PostFeed feed) {
+        MessageDigest digest = sha256();
+
+        for (Post post : feed.getPosts()) {
+            update(digest, post.getDatabase() + ":" + post.getId() + ":" + post.getVersion());
+        }
+        for (String missingDatabase : feed.getMissingDatabases()) {
+            update(digest, "missing:" + missingDatabase);
+        }
+
+        return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+
+        String opaqueTag = stripWeakPrefix(etag);
+        return Arrays.stream(ifNoneMatch.split(","))
+            .map(String::trim)
+            .anyMatch(candidate -> candidate.equals("*") || stripWeakPrefix(candidate).equals(opaqueTag));
+    }
+
+    private static String stripWeakPrefix(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
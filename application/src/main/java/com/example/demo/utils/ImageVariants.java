@@ -0,0 +1,21 @@
+package com.example.demo.utils;
+
+import java.util.List;
+
+public final class ImageVariants {
+
+    public static final String THUMBNAIL = "thumb";
+    public static final String WEB = "web";
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    private ImageVariants() {
+    }
+
+    public static String objectName(String variant, String originalObjectName) {
+        return variant + "-" + originalObjectName;
+    }
+
+    public static List<String> withVariants(String originalObjectName) {
+        return List.of(originalObjectName, objectName(THUMBNAIL, originalObjectName), objectName(WEB, originalObjectName));
+    }
+}
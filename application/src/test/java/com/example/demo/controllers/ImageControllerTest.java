@@ -0,0 +1,142 @@
+package com.example.demo.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.demo.services.ImageDiskCache;
+
+class ImageControllerTest {
+
+    private static final String OBJECT_NAME = "image";
+    private static final String CONTENT = "0123456789";
+    private static final String ETAG = "\"abc\"";
+
+    private final ImageDiskCache imageDiskCache = mock(ImageDiskCache.class);
+    private final ImageController imageController = new ImageController(imageDiskCache);
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void cacheImage() throws IOException {
+        Path path = Files.writeString(directory.resolve(OBJECT_NAME), CONTENT, StandardCharsets.US_ASCII);
+        when(imageDiskCache.get(OBJECT_NAME)).thenReturn(new ImageDiskCache.CachedImage(path, CONTENT.length(), "image/png", ETAG));
+    }
+
+    @Test
+    void withoutRangeSendsTheWholeImage() throws IOException {
+        MockHttpServletResponse response = get(null, null, null);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws IOException {
+        MockHttpServletResponse response = get("W/\"abc\"", null, null);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void closedRangeSendsThePart() throws IOException {
+        assertPartial(get(null, "bytes=2-5", null), "2345", "bytes 2-5/10");
+    }
+
+    @Test
+    void openRangeSendsTheRest() throws IOException {
+        assertPartial(get(null, "bytes=7-", null), "789", "bytes 7-9/10");
+    }
+
+    @Test
+    void suffixRangeSendsTheEnd() throws IOException {
+        assertPartial(get(null, "bytes=-3", null), "789", "bytes 7-9/10");
+        assertPartial(get(null, "bytes=-30", null), CONTENT, "bytes 0-9/10");
+    }
+
+    @Test
+    void rangePastTheEndIsClamped() throws IOException {
+        assertPartial(get(null, "bytes=8-100", null), "89", "bytes 8-9/10");
+        assertPartial(get(null, "bytes=8-99999999999999999999", null), "89", "bytes 8-9/10");
+    }
+
+    @Test
+    void rangeStartingPastTheEndIsNotSatisfiable() throws IOException {
+        assertNotSatisfiable(get(null, "bytes=10-", null));
+        assertNotSatisfiable(get(null, "bytes=99999999999999999999-", null));
+        assertNotSatisfiable(get(null, "bytes=-0", null));
+    }
+
+    @Test
+    void invalidRangeIsIgnored() throws IOException {
+        for (String range : new String[] { "bytes=5-3", "bytes=-", "bytes=1-2,4-5", "items=0-1" }) {
+            MockHttpServletResponse response = get(null, range, null);
+
+            assertThat(response.getStatus()).as(range).isEqualTo(200);
+            assertThat(response.getContentAsString()).as(range).isEqualTo(CONTENT);
+            assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).as(range).isNull();
+        }
+    }
+
+    @Test
+    void matchingIfRangeSendsThePart() throws IOException {
+        assertPartial(get(null, "bytes=0-1", ETAG), "01", "bytes 0-1/10");
+    }
+
+    @Test
+    void staleIfRangeSendsTheWholeImage() throws IOException {
+        MockHttpServletResponse response = get(null, "bytes=0-1", "\"old\"");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void sendfileIsHandedTheRange() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/" + OBJECT_NAME);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        imageController.getImage(OBJECT_NAME, null, "bytes=2-5", null, request, response);
+
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(2L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(6L);
+        assertThat(response.getContentLengthLong()).isEqualTo(4);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    private MockHttpServletResponse get(String ifNoneMatch, String range, String ifRange) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        imageController.getImage(OBJECT_NAME, ifNoneMatch, range, ifRange,
+            new MockHttpServletRequest("GET", "/api/images/" + OBJECT_NAME), response);
+        return response;
+    }
+
+    private static void assertPartial(MockHttpServletResponse response, String content, String contentRange) throws IOException {
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo(content);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo(contentRange);
+        assertThat(response.getContentLengthLong()).isEqualTo(content.length());
+    }
+
+    private static void assertNotSatisfiable(MockHttpServletResponse response) {
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.CursorPage;
+import com.example.demo.entities.PostElasticsearch;
+import com.example.demo.entities.PostRedis;
+import com.example.demo.exception.exceptions.BadRequestException;
+import com.example.demo.repositories.PostElasticsearchRepository;
+import com.example.demo.repositories.PostRedisRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PostServiceCursorTest {
+
+    private final PostRedisRepository postRedisRepository = mock(PostRedisRepository.class);
+    private final PostElasticsearchRepository postElasticsearchRepository = mock(PostElasticsearchRepository.class);
+
+    private final PostService postService = new PostService(
+        null, null, postRedisRepository, postElasticsearchRepository, null, null, null,
+        null, null, new RequestCoalescer(), null, null, null, null, new SimpleMeterRegistry());
+
+    @Test
+    void cursorRoundTripsThroughTheNextPage() {
+        String scanCursor = "1536";
+        when(postRedisRepository.findPage(null, 2)).thenReturn(new CursorPage<>(List.of(redisPost("a"), redisPost("b")), scanCursor));
+        when(postRedisRepository.findPage(scanCursor, 2)).thenReturn(new CursorPage<>(List.of(redisPost("z")), null));
+
+        String cursor = postService.getRedisPosts(2, null).getNextCursor();
+        CursorPage<PostRedis> next = postService.getRedisPosts(2, cursor);
+
+        assertThat(cursor).isNotEqualTo(scanCursor).doesNotContain("=", "+", "/");
+        assertThat(next.getItems()).extracting(PostRedis::getId).containsExactly("z");
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    @Test
+    void blankCursorStartsAtTheFirstPage() {
+        when(postRedisRepository.findPage(null, 10)).thenReturn(new CursorPage<>(List.of(), null));
+
+        assertThat(postService.getRedisPosts(10, " ").getNextCursor()).isNull();
+        verify(postRedisRepository).findPage(isNull(), eq(10));
+    }
+
+    @Test
+    void shortPageHasNoNextCursor() {
+        when(postElasticsearchRepository.findPageAfter(null, 3)).thenReturn(List.of(elasticsearchPost("a"), elasticsearchPost("b")));
+
+        assertThat(postService.getElasticsearchPosts(3, null).getNextCursor()).isNull();
+    }
+
+    @Test
+    void fullPageContinuesAfterItsLastPost() {
+        when(postElasticsearchRepository.findPageAfter(null, 2)).thenReturn(List.of(elasticsearchPost("a"), elasticsearchPost("b")));
+
+        String cursor = postService.getElasticsearchPosts(2, null).getNextCursor();
+
+        assertThat(new String(Base64.getUrlDecoder().decode(cursor))).isEqualTo("b");
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() {
+        assertThatThrownBy(() -> postService.getRedisPosts(10, "not a cursor!"))
+            .isInstanceOf(BadRequestException.class)
+            .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void redisCursorMustBeAScanPosition() {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("post-id".getBytes());
+
+        assertThatThrownBy(() -> postService.getRedisPosts(10, cursor))
+            .isInstanceOf(BadRequestException.class)
+            .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void searchCursorWithoutSortValuesIsABadRequest() {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("no-separator".getBytes());
+
+        assertThatThrownBy(() -> postService.searchPosts("text", null, 10, cursor))
+            .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void nonPositiveLimitIsABadRequest() {
+        assertThatThrownBy(() -> postService.getRedisPosts(0, null)).isInstanceOf(BadRequestException.class);
+    }
+
+    private static PostRedis redisPost(String id) {
+        return PostRedis.builder().id(id).userId("u").text("t").build();
+    }
+
+    private static PostElasticsearch elasticsearchPost(String id) {
+        return PostElasticsearch.builder().id(id).userId("u").text("t").build();
+    }
+}
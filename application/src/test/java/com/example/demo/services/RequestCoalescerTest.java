@@ -0,0 +1,125 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class RequestCoalescerTest {
+
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void concurrentCallersShareOneCall() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> leader = requestCoalescer.coalesceAsync("feed:1", () -> call(pending));
+        CompletableFuture<String> follower = requestCoalescer.coalesceAsync("feed:1", () -> call(pending));
+        pending.complete("posts");
+
+        assertThat(calls).hasValue(1);
+        assertThat(leader.join()).isEqualTo("posts");
+        assertThat(follower.join()).isEqualTo("posts");
+    }
+
+    @Test
+    void completedCallReleasesTheKey() {
+        requestCoalescer.coalesceAsync("feed:1", () -> call(CompletableFuture.completedFuture("first"))).join();
+        String second = requestCoalescer.coalesceAsync("feed:1", () -> call(CompletableFuture.completedFuture("second"))).join();
+
+        assertThat(calls).hasValue(2);
+        assertThat(second).isEqualTo("second");
+    }
+
+    @Test
+    void differentKeysAreNotCoalesced() {
+        requestCoalescer.coalesceAsync("feed:1", () -> call(new CompletableFuture<>()));
+        requestCoalescer.coalesceAsync("feed:2", () -> call(new CompletableFuture<>()));
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void failureReachesEveryCallerAndReleasesTheKey() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> leader = requestCoalescer.coalesceAsync("feed:1", () -> call(pending));
+        CompletableFuture<String> follower = requestCoalescer.coalesceAsync("feed:1", () -> call(pending));
+        pending.completeExceptionally(new IllegalStateException("store down"));
+
+        assertThatThrownBy(leader::join).isInstanceOf(CompletionException.class).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(follower::join).isInstanceOf(CompletionException.class).hasCauseInstanceOf(IllegalStateException.class);
+
+        requestCoalescer.coalesceAsync("feed:1", () -> call(new CompletableFuture<>()));
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void errorThrownBeforeTheFutureExistsReleasesTheKey() {
+        CompletableFuture<String> failed = requestCoalescer.coalesceAsync("feed:1", () -> {
+            throw new AssertionError("supplier failed");
+        });
+
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(AssertionError.class);
+
+        requestCoalescer.coalesceAsync("feed:1", () -> call(new CompletableFuture<>()));
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void synchronousFailureIsRethrownAndReleasesTheKey() {
+        assertThatThrownBy(() -> requestCoalescer.coalesce("post:1", () -> {
+            throw new IllegalArgumentException("bad id");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("bad id");
+
+        assertThat(requestCoalescer.coalesce("post:1", () -> "post")).isEqualTo("post");
+    }
+
+    @Test
+    void callersWithTheSameAuthoritiesShareOneCall() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        authenticate("alice", "ROLE_USER", "ROLE_EDITOR");
+        requestCoalescer.coalesceAsync("feed:1", () -> call(pending));
+        authenticate("bob", "ROLE_EDITOR", "ROLE_USER");
+        CompletableFuture<String> follower = requestCoalescer.coalesceAsync("feed:1", () -> call(pending));
+        pending.complete("posts");
+
+        assertThat(calls).hasValue(1);
+        assertThat(follower.join()).isEqualTo("posts");
+    }
+
+    @Test
+    void callersWithDifferentAuthoritiesAreNotCoalesced() {
+        authenticate("alice", "ROLE_USER");
+        requestCoalescer.coalesceAsync("feed:1", () -> call(new CompletableFuture<>()));
+        authenticate("admin", "ROLE_ADMIN");
+        requestCoalescer.coalesceAsync("feed:1", () -> call(new CompletableFuture<>()));
+        SecurityContextHolder.clearContext();
+        requestCoalescer.coalesceAsync("feed:1", () -> call(new CompletableFuture<>()));
+
+        assertThat(calls).hasValue(3);
+    }
+
+    private CompletableFuture<String> call(CompletableFuture<String> result) {
+        calls.incrementAndGet();
+        return result;
+    }
+
+    private void authenticate(String user, String... authorities) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(user, null, authorities));
+    }
+}
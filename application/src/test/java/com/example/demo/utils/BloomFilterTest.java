@@ -0,0 +1,53 @@
+package com.example.demo.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 100_000;
+
+    @Test
+    void neverForgetsAnInsertedValue() {
+        BloomFilter filter = filled(0.01);
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertThat(filter.mightContain("image-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredRate() {
+        assertThat(falsePositiveRate(filled(0.01))).isLessThan(0.015);
+        assertThat(falsePositiveRate(filled(0.001))).isLessThan(0.0015);
+    }
+
+    @Test
+    void sizeFollowsTheOptimalBitCount() {
+        double optimalBits = -INSERTIONS * Math.log(0.01) / (Math.log(2) * Math.log(2));
+
+        assertThat(BloomFilter.create(INSERTIONS, 0.01).sizeInBytes())
+            .isBetween((long) (optimalBits / 8), (long) (optimalBits / 8) + Long.BYTES);
+    }
+
+    private static BloomFilter filled(double falsePositiveRate) {
+        BloomFilter filter = BloomFilter.create(INSERTIONS, falsePositiveRate);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("image-" + i);
+        }
+        return filter;
+    }
+
+    private static double falsePositiveRate(BloomFilter filter) {
+        int probes = 1_000_000;
+        int falsePositives = 0;
+
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        return (double) falsePositives / probes;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.PostFeed;
+import com.example.demo.entities.Post;
+import com.example.demo.entities.PostMongodb;
+import com.example.demo.entities.PostPostgres;
+import com.example.demo.entities.PostStore;
+
+class ETagsTest {
+
+    @Test
+    void matchesNothingWithoutIfNoneMatch() {
+        assertThat(ETags.matches(null, "\"a\"")).isFalse();
+        assertThat(ETags.matches(" ", "\"a\"")).isFalse();
+    }
+
+    @Test
+    void matchesAnyTagInTheList() {
+        assertThat(ETags.matches("\"a\"", "\"a\"")).isTrue();
+        assertThat(ETags.matches("\"x\", \"a\" ,\"y\"", "\"a\"")).isTrue();
+        assertThat(ETags.matches("\"x\", \"y\"", "\"a\"")).isFalse();
+        assertThat(ETags.matches("*", "\"a\"")).isTrue();
+    }
+
+    @Test
+    void comparesWeakly() {
+        assertThat(ETags.matches("W/\"a\"", "\"a\"")).isTrue();
+        assertThat(ETags.matches("\"a\"", "W/\"a\"")).isTrue();
+        assertThat(ETags.matches("W/\"a\"", "W/\"b\"")).isFalse();
+    }
+
+    @Test
+    void versionTagOfAPostMatchesTheTagOfItsVersion() {
+        PostPostgres post = PostPostgres.builder().id("42").userId("u").text("t").version(3).build();
+
+        assertThat(ETags.forPost(post)).isEqualTo(ETags.forPost(PostStore.POSTGRES, "42", 3));
+        assertThat(ETags.matches(ETags.forPost(post), ETags.forPost(PostStore.POSTGRES, "42", 4))).isFalse();
+        assertThat(ETags.forPost(PostStore.POSTGRES, "42", 3)).isNotEqualTo(ETags.forPost(PostStore.MONGODB, "42", 3));
+    }
+
+    @Test
+    void feedTagChangesWithAnyVersionOrMissingStore() {
+        PostFeed feed = feed(List.of(), 1);
+        String etag = ETags.forFeed(feed);
+
+        assertThat(etag).startsWith("W/\"").endsWith("\"");
+        assertThat(ETags.forFeed(feed(List.of(), 1))).isEqualTo(etag);
+        assertThat(ETags.forFeed(feed(List.of(), 2))).isNotEqualTo(etag);
+        assertThat(ETags.forFeed(feed(List.of("Redis"), 1))).isNotEqualTo(etag);
+        assertThat(ETags.matches(etag, ETags.forFeed(feed(List.of(), 1)))).isTrue();
+    }
+
+    private static PostFeed feed(List<String> missingDatabases, long version) {
+        List<Post> posts = List.of(
+            PostPostgres.builder().id("1").userId("u").text("t").version(version).build(),
+            PostMongodb.builder().id("2").userId("u").text("t").version(0).build());
+        return new PostFeed(posts, missingDatabases);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class ImageTypesTest {
+
+    @Test
+    void detectsSupportedSignatures() {
+        assertThat(ImageTypes.detect(bytes(0xFF, 0xD8, 0xFF, 0xE0, 0, 0x10, 'J', 'F', 'I', 'F', 0, 1))).isEqualTo("image/jpeg");
+        assertThat(ImageTypes.detect(bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D))).isEqualTo("image/png");
+        assertThat(ImageTypes.detect("GIF89a\0\0\0\0\0\0".getBytes(StandardCharsets.ISO_8859_1))).isEqualTo("image/gif");
+        assertThat(ImageTypes.detect("RIFF\0\0\0\0WEBP".getBytes(StandardCharsets.ISO_8859_1))).isEqualTo("image/webp");
+    }
+
+    @Test
+    void rejectsOtherContent() {
+        assertThat(ImageTypes.detect("RIFF\0\0\0\0WAVE".getBytes(StandardCharsets.ISO_8859_1))).isNull();
+        assertThat(ImageTypes.detect("<svg xmlns=".getBytes(StandardCharsets.ISO_8859_1))).isNull();
+        assertThat(ImageTypes.detect(bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0B))).isNull();
+    }
+
+    @Test
+    void rejectsHeadsShorterThanTheSignature() {
+        assertThat(ImageTypes.detect(new byte[0])).isNull();
+        assertThat(ImageTypes.detect(bytes(0xFF, 0xD8))).isNull();
+        assertThat(ImageTypes.detect("RIFF\0\0\0\0WEB".getBytes(StandardCharsets.ISO_8859_1))).isNull();
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
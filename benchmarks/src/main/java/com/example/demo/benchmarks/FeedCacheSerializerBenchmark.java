@@ -0,0 +1,63 @@
+package com.example.demo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.example.demo.dto.PostFeed;
+import com.example.demo.entities.Post;
+import com.example.demo.entities.PostStore;
+
+// The shared feed cache holds a PostFeed mixing all four Post types, so only the generic
+// serializer can read it back. This measures what a local cache miss pays per feed.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedCacheSerializerBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int postsPerStore;
+
+    private GenericJackson2JsonRedisSerializer serializer;
+    private PostFeed feed;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Post> posts = new ArrayList<>();
+        for (PostStore store : PostStore.values()) {
+            posts.addAll(SamplePosts.forStore(store, postsPerStore));
+        }
+
+        serializer = new GenericJackson2JsonRedisSerializer();
+        feed = new PostFeed(posts, new ArrayList<>());
+        bytes = serializer.serialize(feed);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(feed);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.benchmarks;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.configs.FeedExecutors;
+import com.example.demo.dto.PostFeed;
+import com.example.demo.entities.Post;
+import com.example.demo.entities.PostStore;
+import com.example.demo.services.PostService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedMergeBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int postsPerStore;
+
+    private FeedExecutors feedExecutors;
+    private PostService postService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<PostStore, List<? extends Post>> posts = new EnumMap<>(PostStore.class);
+        for (PostStore store : PostStore.values()) {
+            posts.put(store, SamplePosts.forStore(store, postsPerStore));
+        }
+
+        feedExecutors = InMemoryStores.feedExecutors();
+        postService = InMemoryStores.postService(posts, feedExecutors);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        feedExecutors.shutdown();
+    }
+
+    @Benchmark
+    public PostFeed getPostsByUserId() {
+        return postService.getPostsByUserId(SamplePosts.USER_ID).join();
+    }
+
+    // Concurrent callers for the same user are coalesced onto one fan-out.
+    @Benchmark
+    @Threads(8)
+    public PostFeed getPostsByUserIdConcurrent() {
+        return postService.getPostsByUserId(SamplePosts.USER_ID).join();
+    }
+}
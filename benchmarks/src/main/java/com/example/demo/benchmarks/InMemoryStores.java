@@ -0,0 +1,121 @@
+package com.example.demo.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.util.ReflectionUtils;
+
+import com.example.demo.configs.FeedExecutors;
+import com.example.demo.dto.PostFeed;
+import com.example.demo.entities.Post;
+import com.example.demo.entities.PostRedis;
+import com.example.demo.entities.PostStore;
+import com.example.demo.repositories.PostElasticsearchRepository;
+import com.example.demo.repositories.PostMongodbRepository;
+import com.example.demo.repositories.PostPostgresRepository;
+import com.example.demo.repositories.PostReadModelRepository;
+import com.example.demo.repositories.PostRedisRepository;
+import com.example.demo.services.FeedCacheService;
+import com.example.demo.services.PostReadModelProjector;
+import com.example.demo.services.PostService;
+import com.example.demo.services.RequestCoalescer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Wires a PostService whose stores answer from memory, so the benchmarks measure the service
+// itself: executor hand-offs, timeouts and the merge, without network or serialization.
+final class InMemoryStores {
+
+    private InMemoryStores() {
+    }
+
+    static PostService postService(Map<PostStore, List<? extends Post>> posts, FeedExecutors feedExecutors) {
+        return new PostService(
+            repository(PostPostgresRepository.class, posts.get(PostStore.POSTGRES)),
+            repository(PostMongodbRepository.class, posts.get(PostStore.MONGODB)),
+            new InMemoryPostRedisRepository(posts.get(PostStore.REDIS)),
+            repository(PostElasticsearchRepository.class, posts.get(PostStore.ELASTICSEARCH)),
+            repository(PostReadModelRepository.class, List.of()),
+            new StaticListableBeanFactory().getBeanProvider(PostReadModelProjector.class),
+            null,
+            feedExecutors,
+            new UncachedFeedCacheService(),
+            new RequestCoalescer(),
+            event -> {
+            },
+            null,
+            null,
+            null,
+            new SimpleMeterRegistry());
+    }
+
+    static FeedExecutors feedExecutors() {
+        FeedExecutors feedExecutors = new FeedExecutors();
+        setField(feedExecutors, "POOL_SIZE", 16);
+        setField(feedExecutors, "QUEUE_CAPACITY", 256);
+        setField(feedExecutors, "POSTGRES_TIMEOUT", Duration.ofSeconds(2));
+        setField(feedExecutors, "MONGODB_TIMEOUT", Duration.ofSeconds(2));
+        setField(feedExecutors, "REDIS_TIMEOUT", Duration.ofMillis(500));
+        setField(feedExecutors, "ELASTICSEARCH_TIMEOUT", Duration.ofSeconds(2));
+        feedExecutors.init();
+        return feedExecutors;
+    }
+
+    // Only findByUserId is backed, anything else the feed starts calling fails loudly.
+    @SuppressWarnings("unchecked")
+    private static <R> R repository(Class<R> type, List<? extends Post> posts) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (method.getName().equals("findByUserId")) {
+                return SamplePosts.USER_ID.equals(args[0]) ? posts : List.of();
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "InMemory" + type.getSimpleName();
+                };
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not backed in memory");
+        });
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        var field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    private static class InMemoryPostRedisRepository extends PostRedisRepository {
+
+        private final List<? extends Post> posts;
+
+        InMemoryPostRedisRepository(List<? extends Post> posts) {
+            super(null, null);
+            this.posts = posts;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<PostRedis> findByUserId(String userId) {
+            return SamplePosts.USER_ID.equals(userId) ? (List<PostRedis>) posts : List.of();
+        }
+    }
+
+    // Every call goes to the stores, the real service would answer repeated feeds from Caffeine or Redis.
+    private static class UncachedFeedCacheService extends FeedCacheService {
+
+        UncachedFeedCacheService() {
+            super(null, null, null, null);
+        }
+
+        @Override
+        public CompletableFuture<PostFeed> getFeed(String userId, Supplier<CompletableFuture<PostFeed>> loader) {
+            return loader.get();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.benchmarks;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import com.example.demo.security.CachingJwtAuthenticationConverter;
+import com.example.demo.security.CachingJwtDecoder;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// The bearer token path of every API request: signature check, claim validation and the
+// principal built from the claims. A cache of size zero evicts on every load, which is
+// what a token the service has not seen yet costs.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtConversionBenchmark {
+
+    private static final String ISSUER = "http://localhost:8080/realms/monolith-spring-boot-app";
+
+    private String token;
+    private Jwt jwt;
+
+    private JwtDecoder cachingDecoder;
+    private JwtDecoder uncachedDecoder;
+    private CachingJwtAuthenticationConverter cachingConverter;
+    private CachingJwtAuthenticationConverter uncachedConverter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JOSEException {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("benchmark").generate();
+        token = sign(key);
+
+        JwtDecoder nimbusDecoder = NimbusJwtDecoder.withPublicKey(key.toRSAPublicKey()).build();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        cachingDecoder = new CachingJwtDecoder(nimbusDecoder, 10_000, meterRegistry);
+        uncachedDecoder = new CachingJwtDecoder(nimbusDecoder, 0, meterRegistry);
+        cachingConverter = new CachingJwtAuthenticationConverter(10_000, meterRegistry);
+        uncachedConverter = new CachingJwtAuthenticationConverter(0, meterRegistry);
+
+        jwt = nimbusDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeCached() {
+        return cachingDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeUncached() {
+        return uncachedDecoder.decode(token);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convertCached() {
+        return cachingConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convertUncached() {
+        return uncachedConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken decodeAndConvertCached() {
+        return cachingConverter.convert(cachingDecoder.decode(token));
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken decodeAndConvertUncached() {
+        return uncachedConverter.convert(uncachedDecoder.decode(token));
+    }
+
+    private static String sign(RSAKey key) throws JOSEException {
+        Instant now = Instant.now();
+        // Claims as Keycloak issues them for this realm, the token stays valid for the whole run.
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .issuer(ISSUER)
+            .subject(SamplePosts.USER_ID)
+            .jwtID(UUID.randomUUID().toString())
+            .issueTime(Date.from(now))
+            .expirationTime(Date.from(now.plusSeconds(3600)))
+            .claim("preferred_username", "benchmark")
+            .claim("email", "benchmark@example.com")
+            .claim("name", "Benchmark User")
+            .claim("scope", "openid profile email")
+            .claim("spring_sec_roles", List.of("ROLE_USER", "ROLE_ADMIN", "offline_access"))
+            .build();
+
+        SignedJWT signedJwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        signedJwt.sign(new RSASSASigner(key));
+        return signedJwt.serialize();
+    }
+}
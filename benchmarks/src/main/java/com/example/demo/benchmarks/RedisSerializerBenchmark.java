@@ -0,0 +1,65 @@
+package com.example.demo.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.example.demo.entities.PostRedis;
+import com.example.demo.entities.PostStore;
+
+// RedisConfig stores posts with GenericJackson2JsonRedisSerializer, which writes an @class
+// property and resolves it on every read. The alternatives trade that for a fixed type.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({ "generic-jackson", "typed-jackson", "jdk" })
+    private String serializer;
+
+    private RedisSerializer<Object> redisSerializer;
+    private PostRedis post;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        redisSerializer = switch (serializer) {
+            case "generic-jackson" -> new GenericJackson2JsonRedisSerializer();
+            case "typed-jackson" -> (RedisSerializer<Object>) (RedisSerializer<?>) new Jackson2JsonRedisSerializer<>(PostRedis.class);
+            case "jdk" -> new JdkSerializationRedisSerializer();
+            default -> throw new IllegalArgumentException("Unknown serializer " + serializer);
+        };
+
+        post = (PostRedis) SamplePosts.post(PostStore.REDIS, 0);
+        bytes = redisSerializer.serialize(post);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return redisSerializer.serialize(post);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return redisSerializer.deserialize(bytes);
+    }
+}
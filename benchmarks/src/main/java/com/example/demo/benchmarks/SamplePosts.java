@@ -0,0 +1,63 @@
+package com.example.demo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.demo.entities.Post;
+import com.example.demo.entities.PostElasticsearch;
+import com.example.demo.entities.PostMongodb;
+import com.example.demo.entities.PostPostgres;
+import com.example.demo.entities.PostRedis;
+import com.example.demo.entities.PostStore;
+
+final class SamplePosts {
+
+    static final String USER_ID = "3f6c2a9e-5b1d-4c8e-9a7f-2d4b6e8a0c1f";
+
+    // Roughly the size of a short post, so the payloads match what the feed and caches carry.
+    private static final String TEXT = "Benchmark post with a couple of sentences of text. ".repeat(4);
+    private static final String IMAGE_BASE_URL = "/api/images/";
+
+    private SamplePosts() {
+    }
+
+    static List<? extends Post> forStore(PostStore store, int count) {
+        List<Post> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            posts.add(post(store, i));
+        }
+        return posts;
+    }
+
+    static Post post(PostStore store, int index) {
+        String id = UUID.nameUUIDFromBytes((store.name() + index).getBytes()).toString();
+        String image = index % 2 == 0 ? Integer.toHexString(id.hashCode()) : null;
+        String imageUrl = image == null ? null : IMAGE_BASE_URL + image;
+        String thumbnailUrl = image == null ? null : IMAGE_BASE_URL + "thumb-" + image;
+        String webUrl = image == null ? null : IMAGE_BASE_URL + "web-" + image;
+
+        return switch (store) {
+            case POSTGRES -> PostPostgres.builder()
+                    .id(id).userId(USER_ID).text(TEXT)
+                    .imageUrl(imageUrl).thumbnailUrl(thumbnailUrl).webUrl(webUrl)
+                    .version(index % 3)
+                    .build();
+            case MONGODB -> PostMongodb.builder()
+                    .id(id).userId(USER_ID).text(TEXT)
+                    .imageUrl(imageUrl).thumbnailUrl(thumbnailUrl).webUrl(webUrl)
+                    .version(index % 3)
+                    .build();
+            case REDIS -> PostRedis.builder()
+                    .id(id).userId(USER_ID).text(TEXT)
+                    .imageUrl(imageUrl).thumbnailUrl(thumbnailUrl).webUrl(webUrl)
+                    .version(index % 3)
+                    .build();
+            case ELASTICSEARCH -> PostElasticsearch.builder()
+                    .id(id).userId(USER_ID).text(TEXT)
+                    .imageUrl(imageUrl).thumbnailUrl(thumbnailUrl).webUrl(webUrl)
+                    .version(index % 3)
+                    .build();
+        };
+    }
+}